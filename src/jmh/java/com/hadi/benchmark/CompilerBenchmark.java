@@ -0,0 +1,57 @@
+package com.hadi.benchmark;
+
+import com.hadi.clarpse.compiler.CompileResult;
+import com.hadi.clarpse.compiler.CompilerFactory;
+import com.hadi.clarpse.compiler.ProjectFiles;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end compile of the bundled Java and Go corpora by their language's compiler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CompilerBenchmark {
+
+    @Param({"junit5-main.zip", "clarpse.zip", "go-master.zip", "multi-go-module-proj.zip"})
+    private String corpusName;
+    private Corpus corpus;
+    private ProjectFiles projectFiles;
+
+    @Setup(Level.Trial)
+    public void readCorpus() throws Exception {
+        this.corpus = new Corpus(this.corpusName);
+    }
+
+    @Setup(Level.Invocation)
+    public void readProjectFiles() throws Exception {
+        this.projectFiles = this.corpus.projectFiles();
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeProjectFiles() throws Exception {
+        this.projectFiles.close();
+    }
+
+    @Benchmark
+    public CompileResult compile() throws Exception {
+        return CompilerFactory.getParsingTool(this.corpus.lang()).compile(this.projectFiles);
+    }
+}
@@ -0,0 +1,74 @@
+package com.hadi.benchmark;
+
+import com.hadi.clarpse.compiler.Lang;
+import com.hadi.clarpse.compiler.ProjectFiles;
+import org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Objects;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Project corpora bundled with the test resources, read into memory once so benchmarks do
+ * not measure disk access unless they mean to.
+ */
+final class Corpus {
+
+    private final String name;
+    private final byte[] zip;
+
+    Corpus(final String name) throws IOException {
+        this.name = name;
+        try (InputStream in = Objects.requireNonNull(Corpus.class.getResourceAsStream("/" + name),
+                                                     "Missing test resource " + name + ".")) {
+            this.zip = IOUtils.toByteArray(in);
+        }
+    }
+
+    /**
+     * Returns the language of the corpus, the Go corpora are the ones named after Go.
+     */
+    Lang lang() {
+        return this.name.startsWith("go-") || this.name.contains("-go-") ? Lang.GOLANG : Lang.JAVA;
+    }
+
+    byte[] zip() {
+        return this.zip;
+    }
+
+    ProjectFiles projectFiles() throws Exception {
+        return new ProjectFiles(new ByteArrayInputStream(this.zip));
+    }
+
+    /**
+     * Extracts the corpus into a new temporary dir.
+     */
+    File extract() throws IOException {
+        final File dir = Files.createTempDirectory("clarpse-benchmark").toFile();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(this.zip))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                final File destination = new File(dir, entry.getName());
+                if (!destination.toPath().normalize().startsWith(dir.toPath())) {
+                    throw new IOException("Zip entry " + entry.getName() + " lies outside of the target dir.");
+                }
+                if (entry.isDirectory()) {
+                    destination.mkdirs();
+                } else {
+                    destination.getParentFile().mkdirs();
+                    try (OutputStream out = new FileOutputStream(destination)) {
+                        IOUtils.copy(in, out);
+                    }
+                }
+            }
+        }
+        return dir;
+    }
+}
@@ -0,0 +1,58 @@
+package com.hadi.benchmark;
+
+import com.hadi.clarpse.compiler.CompileResult;
+import com.hadi.clarpse.compiler.CompilerFactory;
+import com.hadi.clarpse.compiler.Lang;
+import com.hadi.clarpse.compiler.ProjectFile;
+import com.hadi.clarpse.compiler.ProjectFiles;
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end compile of JavaScript code. None of the bundled corpora is a JavaScript project,
+ * so the bundled ES6 sample is compiled as a project of the given number of modules.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ES6CompilerBenchmark {
+
+    @Param({"1", "100"})
+    private int modules;
+    private String code;
+
+    @Setup
+    public void readSample() throws Exception {
+        try (InputStream in = Objects.requireNonNull(ES6CompilerBenchmark.class.getResourceAsStream(
+            "/sample-es6.txt"))) {
+            this.code = IOUtils.toString(in, StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public CompileResult compile() throws Exception {
+        final ProjectFiles projectFiles = new ProjectFiles();
+        for (int i = 0; i < this.modules; i++) {
+            projectFiles.insertFile(new ProjectFile("/module" + i + "/polygon.js", this.code));
+        }
+        return CompilerFactory.getParsingTool(Lang.JAVASCRIPT).compile(projectFiles);
+    }
+}
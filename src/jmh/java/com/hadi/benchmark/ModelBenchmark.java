@@ -0,0 +1,124 @@
+package com.hadi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hadi.clarpse.compiler.ClarpseProject;
+import com.hadi.clarpse.compiler.ProjectFiles;
+import com.hadi.clarpse.sourcemodel.BinaryModelReader;
+import com.hadi.clarpse.sourcemodel.BinaryModelWriter;
+import com.hadi.clarpse.sourcemodel.Component;
+import com.hadi.clarpse.sourcemodel.JsonModelReader;
+import com.hadi.clarpse.sourcemodel.JsonModelWriter;
+import com.hadi.clarpse.sourcemodel.ModelIndex;
+import com.hadi.clarpse.sourcemodel.OOPSourceCodeModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of the source model on the model compiled from a bundled corpus: merging per file
+ * models the way compilers do, classifying references as internal or external, building the
+ * query index and writing and reading the model in its serialized formats.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ModelBenchmark {
+
+    @Param({"junit5-main.zip", "multi-go-module-proj.zip"})
+    private String corpusName;
+    private OOPSourceCodeModel model;
+    private final List<OOPSourceCodeModel> fileModels = new ArrayList<>();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void compileCorpus() throws Exception {
+        final Corpus corpus = new Corpus(this.corpusName);
+        try (ProjectFiles projectFiles = corpus.projectFiles()) {
+            this.model = new ClarpseProject(projectFiles, corpus.lang()).result().model();
+        }
+        final Map<String, OOPSourceCodeModel> modelsByFile = new LinkedHashMap<>();
+        this.model.components().forEach(cmp -> modelsByFile.computeIfAbsent(
+            String.valueOf(cmp.sourceFile()), file -> new OOPSourceCodeModel()).insertComponent(cmp));
+        this.fileModels.addAll(modelsByFile.values());
+        this.json = this.mapper.writeValueAsBytes(this.model);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryModelWriter(out).write(this.model);
+        this.binary = out.toByteArray();
+    }
+
+    @Benchmark
+    public OOPSourceCodeModel merge() {
+        final OOPSourceCodeModel merged = new OOPSourceCodeModel();
+        for (final OOPSourceCodeModel fileModel : this.fileModels) {
+            merged.merge(fileModel);
+        }
+        return merged;
+    }
+
+    @Benchmark
+    public OOPSourceCodeModel classifyReferences() {
+        this.model.components().forEach(cmp -> cmp.classifyReferences(
+            ref -> this.model.containsComponent(ref.invokedComponent())));
+        return this.model;
+    }
+
+    @Benchmark
+    public ModelIndex buildIndex() {
+        return new ModelIndex(this.model);
+    }
+
+    @Benchmark
+    public OutputStream writeJson() throws Exception {
+        final OutputStream out = OutputStream.nullOutputStream();
+        this.mapper.writeValue(out, this.model);
+        return out;
+    }
+
+    @Benchmark
+    public OutputStream writeJsonStreaming() throws Exception {
+        final OutputStream out = OutputStream.nullOutputStream();
+        new JsonModelWriter(out).write(this.model);
+        return out;
+    }
+
+    @Benchmark
+    public long readJsonStreaming() throws Exception {
+        final long[] components = new long[1];
+        new JsonModelReader(new ByteArrayInputStream(this.json)).read((Component cmp) -> components[0]++);
+        return components[0];
+    }
+
+    @Benchmark
+    public OutputStream writeBinary() throws Exception {
+        final OutputStream out = OutputStream.nullOutputStream();
+        new BinaryModelWriter(out).write(this.model);
+        return out;
+    }
+
+    @Benchmark
+    public OOPSourceCodeModel readBinary() throws Exception {
+        return new BinaryModelReader(new ByteArrayInputStream(this.binary)).read();
+    }
+}
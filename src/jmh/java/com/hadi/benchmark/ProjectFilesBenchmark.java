@@ -0,0 +1,81 @@
+package com.hadi.benchmark;
+
+import com.hadi.clarpse.compiler.ProjectFile;
+import com.hadi.clarpse.compiler.ProjectFiles;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingestion of the bundled corpora into {@link ProjectFiles}, from a zip stream and from a
+ * local dir, eagerly and in streaming mode. Streaming benchmarks read the content of every
+ * file, so they measure the same work as the eager ones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ProjectFilesBenchmark {
+
+    @Param({"junit5-main.zip", "clarpse.zip", "go-master.zip", "multi-go-module-proj.zip"})
+    private String corpusName;
+    private Corpus corpus;
+    private File dir;
+
+    @Setup
+    public void extractCorpus() throws Exception {
+        this.corpus = new Corpus(this.corpusName);
+        this.dir = this.corpus.extract();
+    }
+
+    @TearDown
+    public void deleteCorpus() throws Exception {
+        FileUtils.deleteDirectory(this.dir);
+    }
+
+    private static long contentLength(final ProjectFiles projectFiles) throws Exception {
+        long length = 0;
+        try (ProjectFiles files = projectFiles) {
+            for (final ProjectFile file : files.files()) {
+                length += file.content().length();
+            }
+        }
+        return length;
+    }
+
+    @Benchmark
+    public long readZip() throws Exception {
+        return contentLength(new ProjectFiles(new ByteArrayInputStream(this.corpus.zip())));
+    }
+
+    @Benchmark
+    public long readZipStreaming() throws Exception {
+        return contentLength(new ProjectFiles(new ByteArrayInputStream(this.corpus.zip()), true));
+    }
+
+    @Benchmark
+    public long readDir() throws Exception {
+        return contentLength(new ProjectFiles(this.dir.getPath()));
+    }
+
+    @Benchmark
+    public long readDirStreaming() throws Exception {
+        return contentLength(new ProjectFiles(this.dir.getPath(), true));
+    }
+}
@@ -0,0 +1,90 @@
+package com.hadi.clarpse.compiler;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Retains the ASTs of files parsed ahead of the compiler pass that needs them, such as Java files
+ * parsed while a project is still being read or ES6 files parsed by the initial pass, so they do
+ * not have to be parsed again. Retention stops once the {@link AstMemoryBudget} of the cache is
+ * used up, files that were not retained are simply parsed again when needed.
+ *
+ * @param <T> Type of the AST roots.
+ */
+final class AstCache<T> {
+
+    private final Map<String, T> roots = new ConcurrentHashMap<>();
+    private final AstMemoryBudget.Account account;
+    private final long bytesPerSourceChar;
+
+    /**
+     * @param budget             Budget the estimated size of retained ASTs is reserved from.
+     * @param bytesPerSourceChar Rough number of heap bytes an AST occupies per character of
+     *                           source code.
+     */
+    AstCache(final AstMemoryBudget budget, final long bytesPerSourceChar) {
+        this.account = budget.openAccount(this);
+        this.bytesPerSourceChar = bytesPerSourceChar;
+    }
+
+    /**
+     * Retains the given AST root if the budget allows it.
+     *
+     * @return whether the root was retained.
+     */
+    boolean retain(final ProjectFile file, final T root) {
+        if (!reserve(file)) {
+            return false;
+        }
+        retainReserved(file, root);
+        return true;
+    }
+
+    /**
+     * Reserves the estimated size of the AST of the given file ahead of parsing it, so files
+     * that would not be retained need not be parsed ahead of time at all.
+     *
+     * @return whether the budget allowed the reservation.
+     */
+    boolean reserve(final ProjectFile file) {
+        return this.account.reserve(estimatedSize(file));
+    }
+
+    /**
+     * Retains the given AST root of a file whose size was {@link #reserve reserved}, or returns
+     * the reservation if the root is null.
+     */
+    void retainReserved(final ProjectFile file, final T root) {
+        if (root == null || this.roots.put(file.path(), root) != null) {
+            this.account.release(estimatedSize(file));
+        }
+    }
+
+    /**
+     * Removes and returns the retained AST root of the given file, or null if it was not
+     * retained.
+     */
+    T release(final ProjectFile file) {
+        final T root = this.roots.remove(file.path());
+        if (root != null) {
+            this.account.release(estimatedSize(file));
+        }
+        return root;
+    }
+
+    /**
+     * Drops all retained AST roots and returns their share of the budget.
+     */
+    void clear() {
+        this.roots.clear();
+        this.account.releaseAll();
+    }
+
+    int size() {
+        return this.roots.size();
+    }
+
+    private long estimatedSize(final ProjectFile file) {
+        return file.content().length() * this.bytesPerSourceChar;
+    }
+}
@@ -0,0 +1,123 @@
+package com.hadi.clarpse.compiler;
+
+import java.lang.ref.Cleaner;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounds the combined estimated heap size of the parsed files retained by the in-memory caches
+ * of compilers, such as the ASTs retained between ES6 compiler passes, the Java files parsed while
+ * a project is still being read and the Java files cached for type resolution. Caches stop
+ * retaining files once the budget is used up, files that were not retained are simply parsed
+ * again when needed. A ceiling of 0 disables retention.
+ */
+public final class AstMemoryBudget {
+
+    /**
+     * Environment variable controlling the max estimated size, in megabytes, of all parsed files
+     * retained by the caches sharing the {@link #shared() shared} budget.
+     */
+    public static final String CEILING_ENV = "CLARPSE_AST_CACHE_MB";
+    public static final AstMemoryBudget UNLIMITED = new AstMemoryBudget(Long.MAX_VALUE);
+    /**
+     * Rough number of heap bytes a JavaParser AST occupies per character of source code.
+     */
+    static final long JAVA_AST_BYTES_PER_CHAR = 32;
+    /**
+     * Rough number of heap bytes a Closure AST occupies per character of source code.
+     */
+    static final long ES6_AST_BYTES_PER_CHAR = 24;
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+    private static final long DEFAULT_CEILING_MB = 512;
+    private static final int DEFAULT_HEAP_FRACTION = 4;
+    private static final Cleaner CLEANER = Cleaner.create();
+    private static final AstMemoryBudget SHARED = fromEnvironment();
+
+    private final AtomicLong reservedBytes = new AtomicLong();
+    private final long ceilingBytes;
+
+    /**
+     * @param ceilingMb Max estimated size of all retained parsed files in megabytes.
+     */
+    public AstMemoryBudget(final long ceilingMb) {
+        this.ceilingBytes = Math.max(0, ceilingMb) > Long.MAX_VALUE / BYTES_PER_MB
+            ? Long.MAX_VALUE : Math.max(0, ceilingMb) * BYTES_PER_MB;
+    }
+
+    /**
+     * Returns the budget shared by all compilers of this process unless set otherwise, see
+     * {@link ClarpseCompiler#setAstMemoryBudget}. Its ceiling is read from
+     * {@code CLARPSE_AST_CACHE_MB}, defaulting to the smaller of 512MB and a quarter of the max
+     * heap size.
+     */
+    public static AstMemoryBudget shared() {
+        return SHARED;
+    }
+
+    private static AstMemoryBudget fromEnvironment() {
+        final String override = System.getenv(CEILING_ENV);
+        if (override != null) {
+            try {
+                return new AstMemoryBudget(Long.parseLong(override.trim()));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        final long heapShareMb = Runtime.getRuntime().maxMemory() / DEFAULT_HEAP_FRACTION / BYTES_PER_MB;
+        return new AstMemoryBudget(Math.min(DEFAULT_CEILING_MB, heapShareMb));
+    }
+
+    /**
+     * Opens an account of the given cache. Bytes the account still holds once the cache became
+     * unreachable are returned to this budget, so a discarded cache never keeps its share.
+     */
+    Account openAccount(final Object cache) {
+        final AtomicLong accountBytes = new AtomicLong();
+        CLEANER.register(cache, () -> this.reservedBytes.addAndGet(-accountBytes.getAndSet(0)));
+        return new Account(accountBytes);
+    }
+
+    @Override
+    public String toString() {
+        return "AstMemoryBudget{ceilingBytes=" + this.ceilingBytes + "}";
+    }
+
+    /**
+     * The share of the budget reserved by a single cache.
+     */
+    final class Account {
+
+        private final AtomicLong bytes;
+
+        private Account(final AtomicLong bytes) {
+            this.bytes = bytes;
+        }
+
+        /**
+         * Reserves the given number of bytes if doing so keeps the budget under its ceiling.
+         *
+         * @return whether the bytes were reserved.
+         */
+        boolean reserve(final long size) {
+            if (reservedBytes.addAndGet(size) > ceilingBytes) {
+                reservedBytes.addAndGet(-size);
+                return false;
+            }
+            this.bytes.addAndGet(size);
+            return true;
+        }
+
+        /**
+         * Releases the given number of bytes previously reserved by this account.
+         */
+        void release(final long size) {
+            this.bytes.addAndGet(-size);
+            reservedBytes.addAndGet(-size);
+        }
+
+        /**
+         * Releases all bytes reserved by this account.
+         */
+        void releaseAll() {
+            reservedBytes.addAndGet(-this.bytes.getAndSet(0));
+        }
+    }
+}
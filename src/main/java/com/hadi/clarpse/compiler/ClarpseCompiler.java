@@ -1,5 +1,7 @@
 package com.hadi.clarpse.compiler;
 
+import java.util.Set;
+
 /**
  * Compiles source code into an object-oriented representation of the original code.
  */
@@ -12,4 +14,68 @@ public interface ClarpseCompiler {
      * @return See {@link CompileResult}
      */
     CompileResult compile(ProjectFiles projectFiles) throws CompileException;
+
+    /**
+     * Does the work of compiling the given file that does not depend on any other project
+     * file, such as parsing it, ahead of the next {@link #compile} call. Pipelined projects call
+     * this concurrently for each file as soon as it was read, while the remaining project files
+     * are still being read. Compilers without such work ignore it.
+     *
+     * @param file File that will be part of the next compiled project files.
+     */
+    default void prepare(ProjectFile file) {
+    }
+
+    /**
+     * Registers a listener that is notified of the events of all following compilations of
+     * this compiler. Compilers that do not send events ignore it.
+     */
+    default void addListener(CompileListener listener) {
+    }
+
+    /**
+     * Sets the budget of every file of the following compilations of this compiler, which
+     * defaults to {@link FileBudget#fromEnvironment()}. Files exceeding it are aborted and
+     * reported as failures. Compilers that do not enforce budgets ignore it.
+     */
+    default void setFileBudget(FileBudget budget) {
+    }
+
+    /**
+     * Sets the budget of the parsed files retained in memory by the following compilations of
+     * this compiler, which defaults to {@link AstMemoryBudget#shared()}. Compilers that do not
+     * retain parsed files ignore it.
+     */
+    default void setAstMemoryBudget(AstMemoryBudget budget) {
+    }
+
+    /**
+     * Sets the on-disk cache of per-file parse results used by the following compilations of
+     * this compiler, which defaults to {@link ParseCache#fromEnvironment()}. Compilers that do
+     * not cache parse results ignore it.
+     */
+    default void setParseCache(ParseCache cache) {
+    }
+
+    /**
+     * Updates a previous compile result after some project files have changed. Compilers
+     * drop the components of the changed and deleted files and re-parse only the files affected
+     * by the change, compilers that do not support this compile all project files again.
+     *
+     * @param projectFiles  All project files, already reflecting the changes.
+     * @param previousFiles All project files as they were before the changes. Lazily loaded
+     *                      files may already read their changed content, so compilers should
+     *                      only rely on their paths.
+     * @param previous      Result of the last compilation of the project files. Its model is
+     *                      updated in place where possible, which invalidates the result.
+     * @param changedPaths  Paths of files that were added or modified.
+     * @param deletedPaths  Paths of files that were deleted.
+     * @return See {@link CompileResult}
+     */
+    default CompileResult recompile(ProjectFiles projectFiles, ProjectFiles previousFiles,
+                                    CompileResult previous, Set<String> changedPaths,
+                                    Set<String> deletedPaths)
+        throws CompileException {
+        return compile(projectFiles);
+    }
 }
@@ -7,6 +7,7 @@ import com.google.javascript.jscomp.NodeTraversal;
 import com.google.javascript.jscomp.parsing.Config.JsDocParsing;
 import com.google.javascript.rhino.Node;
 import com.hadi.clarpse.ResolvedRelativePath;
+import com.hadi.clarpse.compiler.CompileMetrics.Phase;
 import com.hadi.clarpse.listener.es6.ES6ClassExport;
 import com.hadi.clarpse.listener.es6.ES6ClassImport;
 import com.hadi.clarpse.listener.es6.ES6Listener;
@@ -14,14 +15,22 @@ import com.hadi.clarpse.listener.es6.ES6Module;
 import com.hadi.clarpse.listener.es6.ES6ModulesListener;
 import com.hadi.clarpse.listener.es6.ModulesMap;
 import com.hadi.clarpse.sourcemodel.OOPSourceCodeModel;
+import com.hadi.clarpse.sourcemodel.SymbolTable;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
  * Compiles JavaScript code.
@@ -29,50 +38,225 @@ import java.util.Set;
 public class ClarpseES6Compiler implements ClarpseCompiler {
 
     private static final Logger LOGGER = LogManager.getLogger(ClarpseES6Compiler.class);
+    private final List<CompileListener> listeners = new ArrayList<>();
+    private FileBudget budget = FileBudget.fromEnvironment();
+    private AstMemoryBudget memoryBudget = AstMemoryBudget.shared();
+    private ParseCache parseCache = ParseCache.fromEnvironment();
+    private AstCache<Node> preparedRoots = preparedRootsCache(this.memoryBudget);
+
+    @Override
+    public void addListener(final CompileListener listener) {
+        this.listeners.add(listener);
+    }
+
+    @Override
+    public void setFileBudget(final FileBudget budget) {
+        this.budget = budget;
+    }
+
+    @Override
+    public void setParseCache(final ParseCache cache) {
+        this.parseCache = cache;
+    }
+
+    @Override
+    public void setAstMemoryBudget(final AstMemoryBudget memoryBudget) {
+        this.preparedRoots.clear();
+        this.memoryBudget = memoryBudget;
+        this.preparedRoots = preparedRootsCache(memoryBudget);
+    }
+
+    private static AstCache<Node> preparedRootsCache(final AstMemoryBudget memoryBudget) {
+        return new AstCache<>(memoryBudget, AstMemoryBudget.ES6_AST_BYTES_PER_CHAR);
+    }
+
+    /**
+     * Parses the given JavaScript file ahead of compilation, the initial pass then only
+     * traverses its AST. Files are only parsed if the memory budget allows retaining them,
+     * files exceeding the file budget are left to the initial pass, which aborts them.
+     */
+    @Override
+    public void prepare(final ProjectFile file) {
+        if (Lang.langFromExtn(file.extension()) == Lang.JAVASCRIPT && !this.budget.exceedsSize(file)
+            && this.preparedRoots.reserve(file)) {
+            // Closure compiler instances are not thread safe, and files are prepared by any
+            // number of pipeline threads, so each file gets its own.
+            final Compiler compiler = setupCompiler();
+            Node root = null;
+            try {
+                root = this.budget.start(file).run(() -> parse(file, compiler));
+            } catch (final FileBudgetExceededException ignored) {
+            } finally {
+                this.preparedRoots.retainReserved(file, root);
+            }
+        }
+    }
 
     private CompileResult compileFiles(final Collection<ProjectFile> files) {
-        final OOPSourceCodeModel model = new OOPSourceCodeModel();
-        final Compiler compiler = setupCompiler();
+        final List<ProjectFile> orderedFiles = new ArrayList<>(files);
+        final int parallelism = CompilerParallelism.resolve(orderedFiles.size());
         final ModulesMap modulesMap = new ModulesMap();
-        // Stage 1 - Populate modules map on initial pass.
-        populateModulesMap(files, compiler, modulesMap);
-        // Stage 2 - Now that initial pass is completed, resolve module exports/imports in each
-        // module.
-        resolveModuleDependencies(modulesMap);
-        // Stage 3 - Final parse of all files, populate source code model.
-        Set<ProjectFile> failures = parseAllSourceCode(files, model, compiler, modulesMap);
-        return new CompileResult(model, failures);
+        // Closure compiler instances are not thread safe, each parser thread gets its own.
+        final ThreadLocal<Compiler> compilers = ThreadLocal.withInitial(this::setupCompiler);
+        // ASTs from the initial pass are retained where memory allows so the final pass does
+        // not need to parse those files again.
+        final AstCache<Node> astCache = new AstCache<>(this.memoryBudget, AstMemoryBudget.ES6_AST_BYTES_PER_CHAR);
+        final CompileEvents events = new CompileEvents(Lang.JAVASCRIPT, this.listeners);
+        // Files that exceeded their budget in the initial pass, keyed by path.
+        final Map<String, FileBudgetExceededException> abortedFiles = new ConcurrentHashMap<>();
+        try {
+            // Stage 1 - Populate modules map on initial pass.
+            populateModulesMap(orderedFiles, compilers, modulesMap, astCache, abortedFiles, events,
+                               parallelism);
+            // Stage 2 - Now that initial pass is completed, resolve module exports/imports in
+            // each module.
+            final long resolutionStart = events.phaseStarted(Phase.MODULE_RESOLUTION);
+            resolveModuleDependencies(modulesMap);
+            events.phaseFinished(Phase.MODULE_RESOLUTION, resolutionStart);
+            // Stage 3 - Final parse of all files, populate source code model.
+            final OOPSourceCodeModel model = new OOPSourceCodeModel();
+            final Set<ProjectFile> failures = parseAllSourceCode(orderedFiles, model, compilers,
+                                                                 modulesMap, astCache, abortedFiles,
+                                                                 events, parallelism);
+            return new CompileResult(model, failures, events.metrics(), events.failureReasons());
+        } finally {
+            // Only the calling thread outlives this compilation when parsing serially.
+            compilers.remove();
+            astCache.clear();
+            // Prepared files that were not part of this compile are dropped as well.
+            this.preparedRoots.clear();
+        }
     }
 
-    private Set<ProjectFile> parseAllSourceCode(final Collection<ProjectFile> files,
+    private Set<ProjectFile> parseAllSourceCode(final List<ProjectFile> files,
                                                 final OOPSourceCodeModel model,
-                                                final Compiler compiler,
-                                                final ModulesMap modulesMap) {
-        Set<ProjectFile> failures = new HashSet<>();
-        LOGGER.info("<<< Executing third pass to parse all ES6 source files.. >>>");
-        files.forEach(file -> {
-            try {
-                final Node root = new JsAst(com.google.javascript.jscomp.SourceFile.fromCode(
-                    file.path(), file.content())).getAstRoot(compiler);
-                if (root.getFirstChild() == null || file.content().isEmpty()) {
-                    LOGGER.warn("File: " + file.path() + " could not be parsed!");
-                    failures.add(file);
+                                                final ThreadLocal<Compiler> compilers,
+                                                final ModulesMap modulesMap,
+                                                final AstCache<Node> astCache,
+                                                final Map<String, FileBudgetExceededException> abortedFiles,
+                                                final CompileEvents events,
+                                                final int parallelism) {
+        final Set<ProjectFile> failures = new HashSet<>();
+        LOGGER.info("<<< Executing third pass to parse all ES6 source files using " + parallelism
+                        + " thread(s).. >>>");
+        final ParseCache cache = this.parseCache;
+        // Per-file models intern their components in the table of the model they are merged into.
+        final SymbolTable symbols = model.symbols();
+        final List<Callable<ParseOutcome>> tasks = new ArrayList<>(files.size());
+        for (final ProjectFile file : files) {
+            tasks.add(() -> parseSourceFile(file, files, compilers, modulesMap, astCache,
+                                            abortedFiles, cache, symbols, events));
+        }
+        try {
+            final List<ParseOutcome> outcomes = CompilerParallelism.invokeAll(tasks, parallelism);
+            final long mergeStart = events.phaseStarted(Phase.MERGE);
+            // Per-file models are merged in file order so the result does not depend on
+            // thread scheduling.
+            for (final ParseOutcome outcome : outcomes) {
+                model.merge(outcome.model);
+                if (outcome.failed) {
+                    failures.add(outcome.file);
                 }
-                final NodeTraversal.Callback jsListener = new ES6Listener(
-                    model, file, files, modulesMap);
-                NodeTraversal.traverse(compiler, root, jsListener);
-            } catch (final Exception e) {
-                LOGGER.error("Error while parsing file: " + file.path() + ".", e);
-                failures.add(file);
             }
-        });
+            events.phaseFinished(Phase.MERGE, mergeStart);
+        } catch (final Exception e) {
+            LOGGER.error("Error while parsing ES6 source files.", e);
+        }
+        cache.evict();
         return failures;
     }
 
+    private ParseOutcome parseSourceFile(final ProjectFile file,
+                                         final Collection<ProjectFile> files,
+                                         final ThreadLocal<Compiler> compilers,
+                                         final ModulesMap modulesMap,
+                                         final AstCache<Node> astCache,
+                                         final Map<String, FileBudgetExceededException> abortedFiles,
+                                         final ParseCache cache,
+                                         final SymbolTable symbols,
+                                         final CompileEvents events) {
+        final FileBudgetExceededException abort = abortedFiles.get(file.path());
+        if (abort != null) {
+            final long start = events.fileStarted(file);
+            events.fileFailed(file, abort);
+            events.fileFinished(file, start);
+            return new ParseOutcome(file, new OOPSourceCodeModel(), true);
+        }
+        String cacheKey = null;
+        if (cache.enabled()) {
+            final long start = System.nanoTime();
+            cacheKey = cache.key(Lang.JAVASCRIPT, file, importsDigest(file, modulesMap));
+            final Optional<ParseCache.Fragment> fragment = cache.get(cacheKey);
+            if (fragment.isPresent()) {
+                // The retained AST is not needed, dropping it returns its share of the budget.
+                astCache.release(file);
+                events.fileCached(file, fragment.get(), start);
+                return new ParseOutcome(file, fragment.get().model(), fragment.get().failed());
+            }
+        }
+        Node root = astCache.release(file);
+        final OOPSourceCodeModel localModel = new OOPSourceCodeModel(symbols);
+        boolean failed = false;
+        final long start = events.fileStarted(file);
+        try {
+            final FileBudget.Deadline deadline = this.budget.start(file);
+            final Compiler compiler = compilers.get();
+            if (root == null) {
+                final long parseStart = events.phaseStarted(Phase.PARSE, file);
+                root = deadline.run(() -> parse(file, compiler));
+                events.phaseFinished(Phase.PARSE, file, parseStart);
+                deadline.check();
+            }
+            if (root.getFirstChild() == null || file.content().isEmpty()) {
+                LOGGER.warn("File: " + file.path() + " could not be parsed!");
+                failed = true;
+                events.fileFailed(file, null);
+            }
+            final long resolutionStart = events.phaseStarted(Phase.SYMBOL_RESOLUTION, file);
+            final NodeTraversal.Callback jsListener = new ES6Listener(
+                localModel, file, files, modulesMap);
+            traverse(compiler, root, jsListener, deadline);
+            events.phaseFinished(Phase.SYMBOL_RESOLUTION, file, resolutionStart);
+        } catch (final FileBudgetExceededException e) {
+            LOGGER.warn("Aborted file " + file.path() + ". " + e.getMessage());
+            // An abandoned parse of the file may still be using the compiler.
+            compilers.remove();
+            events.fileFailed(file, e);
+            events.fileFinished(file, start);
+            // Not cached, as the outcome depends on the budget and the speed of the machine.
+            return new ParseOutcome(file, new OOPSourceCodeModel(), true);
+        } catch (final Exception e) {
+            LOGGER.error("Error while parsing file: " + file.path() + ".", e);
+            failed = true;
+            events.fileFailed(file, e);
+        }
+        events.fileFinished(file, start);
+        if (cacheKey != null) {
+            cache.put(cacheKey, new ParseCache.Fragment(localModel, failed, events.failureReasons().get(file.path()),
+                                                        Collections.emptyList()));
+        }
+        return new ParseOutcome(file, localModel, failed);
+    }
+
+    /**
+     * Components of a module reference classes imported from other modules, so the resolved
+     * imports of the module are part of its cache key.
+     */
+    private String importsDigest(final ProjectFile file, final ModulesMap modulesMap) {
+        final ES6Module module = modulesMap.module(FilenameUtils.removeExtension(file.path()));
+        if (module == null) {
+            return "";
+        }
+        return ParseCache.digest(module.getClassImports().stream().map(ES6ClassImport::asText)
+                                     .collect(Collectors.joining("\n")));
+    }
+
     private void resolveModuleDependencies(final ModulesMap modulesMap) {
         final Set<String> recursedModules = new HashSet<>();
         LOGGER.info("<<< Executing second pass to resolve module imports and exports.. >>>");
-        modulesMap.modules().forEach((module) -> {
+        // Modules are visited in path order so resolution does not depend on the order in which
+        // the initial pass registered them.
+        modulesMap.sortedModules().forEach((module) -> {
             try {
                 resolveModuleImportsAndExports(module, recursedModules, modulesMap);
             } catch (final Exception e) {
@@ -81,20 +265,80 @@ public class ClarpseES6Compiler implements ClarpseCompiler {
         });
     }
 
-    private void populateModulesMap(final Collection<ProjectFile> files, final Compiler compiler,
-                                    final ModulesMap modulesMap) {
-        LOGGER.info("<<< Compiling ES6 files, executing initial pass to generate modules map.. "
-                        + ">>>");
-        files.forEach(file -> {
-            try {
-                final Node root = new JsAst(com.google.javascript.jscomp.SourceFile.fromCode(
-                    file.path(), file.content())).getAstRoot(compiler);
-                final NodeTraversal.Callback jsListener = new ES6ModulesListener(file, modulesMap);
-                NodeTraversal.traverse(compiler, root, jsListener);
-            } catch (final Exception e) {
-                LOGGER.error("Failed to parse module info for " + file.path() + ".", e);
+    private void populateModulesMap(final List<ProjectFile> files,
+                                    final ThreadLocal<Compiler> compilers,
+                                    final ModulesMap modulesMap,
+                                    final AstCache<Node> astCache,
+                                    final Map<String, FileBudgetExceededException> abortedFiles,
+                                    final CompileEvents events,
+                                    final int parallelism) {
+        LOGGER.info("<<< Compiling ES6 files, executing initial pass to generate modules map using "
+                        + parallelism + " thread(s).. >>>");
+        final List<Callable<Void>> tasks = new ArrayList<>(files.size());
+        for (final ProjectFile file : files) {
+            tasks.add(() -> {
+                final long start = events.fileStarted(file);
+                try {
+                    final FileBudget.Deadline deadline = this.budget.start(file);
+                    final Compiler compiler = compilers.get();
+                    final long parseStart = events.phaseStarted(Phase.PARSE, file);
+                    final Node prepared = this.preparedRoots.release(file);
+                    final Node root = prepared != null ? prepared : deadline.run(() -> parse(file, compiler));
+                    events.phaseFinished(Phase.PARSE, file, parseStart);
+                    deadline.check();
+                    final long resolutionStart = events.phaseStarted(Phase.MODULE_RESOLUTION, file);
+                    final NodeTraversal.Callback jsListener =
+                        new ES6ModulesListener(file, modulesMap);
+                    traverse(compiler, root, jsListener, deadline);
+                    events.phaseFinished(Phase.MODULE_RESOLUTION, file, resolutionStart);
+                    astCache.retain(file, root);
+                } catch (final FileBudgetExceededException e) {
+                    // An abandoned parse of the file may still be using the compiler.
+                    compilers.remove();
+                    // Reported as a failure by the final pass, which skips the file.
+                    abortedFiles.put(file.path(), e);
+                } catch (final Exception e) {
+                    LOGGER.error("Failed to parse module info for " + file.path() + ".", e);
+                }
+                events.fileFinished(file, start);
+                return null;
+            });
+        }
+        try {
+            CompilerParallelism.invokeAll(tasks, parallelism);
+        } catch (final Exception e) {
+            LOGGER.error("Error while generating ES6 modules map.", e);
+        }
+        LOGGER.info("Retained " + astCache.size() + " of " + files.size()
+                        + " ES6 ASTs for the final pass.");
+    }
+
+    /**
+     * Traverses the given AST through {@link FileBudget.Deadline#run}, checking the given
+     * deadline before every node. Closure wraps
+     * exceptions thrown by callbacks, a wrapped exceeded budget is thrown as is.
+     */
+    private static void traverse(final Compiler compiler, final Node root,
+                                 final NodeTraversal.Callback callback,
+                                 final FileBudget.Deadline deadline) {
+        try {
+            deadline.run(() -> {
+                NodeTraversal.traverse(compiler, root, new DeadlineCallback(callback, deadline));
+                return null;
+            });
+        } catch (final RuntimeException e) {
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof FileBudgetExceededException) {
+                    throw (FileBudgetExceededException) cause;
+                }
             }
-        });
+            throw e;
+        }
+    }
+
+    private Node parse(final ProjectFile file, final Compiler compiler) {
+        return new JsAst(com.google.javascript.jscomp.SourceFile.fromCode(
+            file.path(), file.content())).getAstRoot(compiler);
     }
 
     private Compiler setupCompiler() {
@@ -402,4 +646,38 @@ public class ClarpseES6Compiler implements ClarpseCompiler {
             new ES6ClassExport(module.modulePkg() + pkgSeparator + className, exportAlias,
                                isDefault));
     }
+
+    private static final class DeadlineCallback implements NodeTraversal.Callback {
+        private final NodeTraversal.Callback callback;
+        private final FileBudget.Deadline deadline;
+
+        private DeadlineCallback(final NodeTraversal.Callback callback, final FileBudget.Deadline deadline) {
+            this.callback = callback;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean shouldTraverse(final NodeTraversal t, final Node n, final Node parent) {
+            this.deadline.tick();
+            return this.callback.shouldTraverse(t, n, parent);
+        }
+
+        @Override
+        public void visit(final NodeTraversal t, final Node n, final Node parent) {
+            this.callback.visit(t, n, parent);
+        }
+    }
+
+    private static final class ParseOutcome {
+        private final ProjectFile file;
+        private final OOPSourceCodeModel model;
+        private final boolean failed;
+
+        private ParseOutcome(final ProjectFile file, final OOPSourceCodeModel model,
+                             final boolean failed) {
+            this.file = file;
+            this.model = model;
+            this.failed = failed;
+        }
+    }
 }
@@ -8,27 +8,34 @@ import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.Node;
 import com.github.javaparser.symbolsolver.JavaSymbolSolver;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+import com.hadi.clarpse.compiler.CompileMetrics.Phase;
 import com.hadi.clarpse.listener.JavaTreeListener;
-import com.hadi.clarpse.reference.ComponentReference;
+import com.hadi.clarpse.sourcemodel.Component;
 import com.hadi.clarpse.sourcemodel.OOPSourceCodeModel;
-import org.apache.commons.io.FileUtils;
+import com.hadi.clarpse.sourcemodel.OOPSourceModelConstants.TypeReferences;
+import com.hadi.clarpse.sourcemodel.SymbolTable;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.io.File;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.LinkedHashSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * JavaParser based compiler to process source code.
@@ -36,66 +43,315 @@ import java.util.concurrent.TimeUnit;
 public class ClarpseJavaCompiler implements ClarpseCompiler {
 
     private static final Logger LOGGER = LogManager.getLogger(ClarpseJavaCompiler.class);
-    private static final String PARALLELISM_ENV = "CLARPSE_PARALLELISM";
-    private static final int MIN_FILES_FOR_PARALLEL = 2;
+    private final List<CompileListener> listeners = new ArrayList<>();
+    private FileBudget budget = FileBudget.fromEnvironment();
+    private AstMemoryBudget memoryBudget = AstMemoryBudget.shared();
+    private ParseCache parseCache = ParseCache.fromEnvironment();
+    private AstCache<CompilationUnit> preparedUnits = preparedUnitsCache(this.memoryBudget);
+
+    @Override
+    public void addListener(final CompileListener listener) {
+        this.listeners.add(listener);
+    }
+
+    @Override
+    public void setFileBudget(final FileBudget budget) {
+        this.budget = budget;
+    }
+
+    @Override
+    public void setParseCache(final ParseCache cache) {
+        this.parseCache = cache;
+    }
+
+    @Override
+    public void setAstMemoryBudget(final AstMemoryBudget memoryBudget) {
+        this.preparedUnits.clear();
+        this.memoryBudget = memoryBudget;
+        this.preparedUnits = preparedUnitsCache(memoryBudget);
+    }
+
+    private static AstCache<CompilationUnit> preparedUnitsCache(final AstMemoryBudget memoryBudget) {
+        return new AstCache<>(memoryBudget, AstMemoryBudget.JAVA_AST_BYTES_PER_CHAR);
+    }
 
     @Override
     public CompileResult compile(final ProjectFiles projectFiles) throws CompileException {
         final OOPSourceCodeModel srcModel = new OOPSourceCodeModel();
         final Set<ProjectFile> compileFailures = new HashSet<>();
+        final CompileEvents events = new CompileEvents(Lang.JAVA, this.listeners);
         final List<ProjectFile> javaFiles = new ArrayList<>(projectFiles.files(Lang.JAVA));
         if (!javaFiles.isEmpty()) {
-            String persistDir = null;
+            final ParseResults parseResults = parseJavaFiles(javaFiles, projectFiles, srcModel.symbols(), events);
+            final long mergeStart = events.phaseStarted(Phase.MERGE);
+            srcModel.merge(parseResults.model);
+            compileFailures.addAll(parseResults.failures);
+            events.phaseFinished(Phase.MERGE, mergeStart);
+            // Classify component references as internal/external
+            final long classifyStart = events.phaseStarted(Phase.CLASSIFY_REFERENCES);
+            classifyRefs(srcModel, srcModel.components().collect(Collectors.toList()));
+            events.phaseFinished(Phase.CLASSIFY_REFERENCES, classifyStart);
+        }
+        return new CompileResult(srcModel, compileFailures, events.metrics(), events.failureReasons());
+    }
+
+    /**
+     * Parses the given Java file ahead of compilation, the compilation unit is attached to the
+     * type solver of the parser thread that compiles the file. Files are only parsed if the
+     * memory budget allows retaining them, files exceeding the file budget are left to the
+     * compilation, which aborts them.
+     */
+    @Override
+    public void prepare(final ProjectFile file) {
+        if (Lang.langFromExtn(file.extension()) == Lang.JAVA && !this.budget.exceedsSize(file)
+            && this.preparedUnits.reserve(file)) {
+            Optional<CompilationUnit> cu = Optional.empty();
             try {
-                persistDir = projectFiles.projectDir();
-                final ParseResults parseResults = parseJavaFiles(javaFiles, persistDir);
-                srcModel.merge(parseResults.model);
-                compileFailures.addAll(parseResults.failures);
-            } catch (Exception e) {
-                throw new CompileException("An error occurred while parsing!", e);
+                cu = this.budget.start(file).run(() -> new JavaParser(setupParserConfig()).parse(
+                    ParseStart.COMPILATION_UNIT, new StringProvider(file.content())).getResult());
+            } catch (final FileBudgetExceededException ignored) {
             } finally {
-                if (persistDir != null && !persistDir.isEmpty() && projectFiles.isTempProjectDir()) {
-                    FileUtils.deleteQuietly(new File(persistDir));
+                this.preparedUnits.retainReserved(file, cu.orElse(null));
+            }
+        }
+    }
+
+    /**
+     * Re-parses the changed Java files and the unchanged files that depend on them, see
+     * {@link #dependentPaths}. References of other files are not resolved again, but are
+     * re-classified as internal/external when they point to components that were added or
+     * removed.
+     */
+    @Override
+    public CompileResult recompile(final ProjectFiles projectFiles, final ProjectFiles previousFiles,
+                                   final CompileResult previous, final Set<String> changedPaths,
+                                   final Set<String> deletedPaths)
+        throws CompileException {
+        final OOPSourceCodeModel srcModel = previous.model();
+        final CompileEvents events = new CompileEvents(Lang.JAVA, this.listeners);
+        final Set<String> modifiedPaths = new HashSet<>(changedPaths);
+        modifiedPaths.addAll(deletedPaths);
+        final Set<String> reparsedPaths = dependentPaths(srcModel, projectFiles, changedPaths, modifiedPaths);
+        if (!reparsedPaths.isEmpty()) {
+            LOGGER.info("Re-parsing " + reparsedPaths.size() + " Java files depending on changed types.");
+        }
+        reparsedPaths.addAll(changedPaths);
+        final Set<String> removedPaths = new HashSet<>(reparsedPaths);
+        removedPaths.addAll(deletedPaths);
+        final Set<ProjectFile> compileFailures = new HashSet<>(previous.failures());
+        compileFailures.removeIf(failure -> removedPaths.contains(failure.path()));
+        final Set<String> affectedNames = new HashSet<>();
+        srcModel.removeFileComponents(removedPaths).forEach(cmp -> affectedNames.add(cmp.uniqueName()));
+        final List<ProjectFile> reparsedFiles = projectFiles.files(Lang.JAVA).stream().filter(
+            file -> reparsedPaths.contains(file.path())).collect(Collectors.toList());
+        final ParseResults parseResults = parseJavaFiles(reparsedFiles, projectFiles, srcModel.symbols(), events);
+        final OOPSourceCodeModel changedModel = parseResults.model;
+        compileFailures.addAll(parseResults.failures);
+        // Components that were both removed and re-added do not change any classification.
+        changedModel.components().forEach(cmp -> {
+            if (!affectedNames.remove(cmp.uniqueName())) {
+                affectedNames.add(cmp.uniqueName());
+            }
+        });
+        final List<Component> impactedCmps = srcModel.components().filter(
+            cmp -> cmp.references().stream().anyMatch(
+                ref -> affectedNames.contains(ref.invokedComponent()))).collect(Collectors.toList());
+        final long mergeStart = events.phaseStarted(Phase.MERGE);
+        srcModel.merge(changedModel);
+        events.phaseFinished(Phase.MERGE, mergeStart);
+        impactedCmps.addAll(changedModel.components().collect(Collectors.toList()));
+        final long classifyStart = events.phaseStarted(Phase.CLASSIFY_REFERENCES);
+        classifyRefs(srcModel, impactedCmps);
+        events.phaseFinished(Phase.CLASSIFY_REFERENCES, classifyStart);
+        final Map<String, String> failureReasons = new HashMap<>(previous.failureReasons());
+        failureReasons.putAll(events.failureReasons());
+        return new CompileResult(srcModel, compileFailures, events.metrics(), failureReasons);
+    }
+
+    /**
+     * Returns the paths of the unchanged files with components referencing a type declared by
+     * a modified file, before or after the change, or a subtype of such a type. References of
+     * these files may resolve differently after the change, e.g. a called method resolves to
+     * the type declaring it, which changes when the method moves to a supertype.
+     */
+    private static Set<String> dependentPaths(final OOPSourceCodeModel srcModel, final ProjectFiles projectFiles,
+                                              final Set<String> changedPaths, final Set<String> modifiedPaths) {
+        final Set<String> changedTypes = new HashSet<>();
+        final Map<String, List<String>> subtypes = new HashMap<>();
+        srcModel.components().forEach(cmp -> {
+            if (modifiedPaths.contains(cmp.sourceFile())) {
+                changedTypes.add(cmp.uniqueName());
+            }
+            Stream.concat(cmp.references(TypeReferences.EXTENSION).stream(),
+                          cmp.references(TypeReferences.IMPLEMENTATION).stream()).forEach(
+                ref -> subtypes.computeIfAbsent(ref.invokedComponent(), type -> new ArrayList<>())
+                               .add(cmp.uniqueName()));
+        });
+        projectFiles.files(Lang.JAVA).stream().filter(file -> changedPaths.contains(file.path())).forEach(
+            file -> changedTypes.addAll(JavaProjectIndex.declaredTypes(file.content())));
+        // Subtypes inherit the members of the changed types.
+        final Deque<String> pendingTypes = new ArrayDeque<>(changedTypes);
+        while (!pendingTypes.isEmpty()) {
+            for (final String subtype : subtypes.getOrDefault(pendingTypes.pop(), Collections.emptyList())) {
+                if (changedTypes.add(subtype)) {
+                    pendingTypes.push(subtype);
                 }
             }
-            // Classify component references as internal/external
-            classifyRefs(srcModel);
         }
-        return new CompileResult(srcModel, compileFailures);
+        return srcModel.components().filter(
+            cmp -> cmp.sourceFile() != null && !modifiedPaths.contains(cmp.sourceFile())
+                && cmp.references().stream().anyMatch(ref -> referencesAny(ref.invokedComponent(), changedTypes)))
+                       .map(Component::sourceFile).collect(Collectors.toCollection(HashSet::new));
     }
 
-    private ParseResults parseJavaFiles(final List<ProjectFile> files, final String persistDir) {
-        final int parallelism = resolveParallelism(files.size());
-        if (parallelism > 1) {
-            LOGGER.info("Parsing Java files in parallel using " + parallelism + " threads.");
-            return parseJavaFilesParallel(files, persistDir, parallelism);
+    /**
+     * Returns whether the given referenced component is one of the given types or is nested in
+     * one of them.
+     */
+    private static boolean referencesAny(final String referencedCmp, final Set<String> types) {
+        String name = referencedCmp;
+        while (!types.contains(name)) {
+            final int lastSeparator = name.lastIndexOf('.');
+            if (lastSeparator < 0) {
+                return false;
+            }
+            name = name.substring(0, lastSeparator);
         }
-        return parseJavaFilesSerial(files, persistDir);
+        return true;
     }
 
-    private ParseResults parseJavaFilesSerial(final List<ProjectFile> files, final String persistDir) {
-        final OOPSourceCodeModel srcModel = new OOPSourceCodeModel();
-        final Set<ProjectFile> compileFailures = new HashSet<>();
-        final CombinedTypeSolver typeSolver = setupTypeSolver(persistDir);
-        final ParserConfiguration parserConfiguration = setupParserConfig(typeSolver);
-        final JavaParser parser = new JavaParser(parserConfiguration);
+    /**
+     * Parses the given files, reusing cached parse results where available.
+     */
+    /**
+     * Parses the given files into a model whose components are interned in the given table, so
+     * that merging it into a model sharing the table does not intern them again.
+     */
+    private ParseResults parseJavaFiles(final List<ProjectFile> files, final ProjectFiles projectFiles,
+                                        final SymbolTable symbols, final CompileEvents events)
+        throws CompileException {
+        final ParseCache cache = this.parseCache;
+        // Project types are resolved from the in-memory project files, the index is shared by
+        // all parser threads so each project file is parsed for type resolution once. Files
+        // exceeding the size budget are left out, as they would be parsed for type resolution
+        // regardless.
+        final long indexStart = events.phaseStarted(Phase.SYMBOL_RESOLUTION);
+        final JavaProjectIndex projectIndex = new JavaProjectIndex(
+            projectFiles.files(Lang.JAVA).stream().filter(file -> !this.budget.exceedsSize(file))
+                        .collect(Collectors.toList()), projectFiles.localDir().orElse(""), this.memoryBudget);
+        events.phaseFinished(Phase.SYMBOL_RESOLUTION, indexStart);
+        // Cached files are parsed again once any project file changes, as the types, members
+        // and supertypes declared by other files decide how their references resolve.
+        final String sourcesDigest = cache.enabled() ? projectIndex.sourcesDigest() : "";
+        final List<ParseOutcome> outcomes = new ArrayList<>(files.size());
+        final List<ProjectFile> uncachedFiles = new ArrayList<>();
+        final List<String> uncachedKeys = new ArrayList<>();
         for (final ProjectFile file : files) {
-            final ParseOutcome outcome = parseSingleFile(parser, typeSolver, file);
-            srcModel.merge(outcome.model);
+            ParseOutcome outcome = null;
+            if (cache.enabled()) {
+                final long start = System.nanoTime();
+                final String key = cache.key(Lang.JAVA, file, sourcesDigest);
+                final Optional<ParseCache.Fragment> fragment = cache.get(key);
+                if (fragment.isPresent()) {
+                    events.fileCached(file, fragment.get(), start);
+                    outcome = new ParseOutcome(outcomes.size(), fragment.get().model(),
+                                               fragment.get().failed() ? file : null);
+                } else {
+                    uncachedKeys.add(key);
+                }
+            }
+            if (outcome == null) {
+                uncachedFiles.add(file);
+            }
+            outcomes.add(outcome);
+        }
+        if (!uncachedFiles.isEmpty()) {
+            if (cache.enabled()) {
+                LOGGER.info("Parsing " + uncachedFiles.size() + " of " + files.size()
+                                + " Java files that were not cached.");
+            }
+            try {
+                final List<ParseOutcome> parsed = parseJavaFiles(uncachedFiles, projectIndex, symbols, events);
+                LOGGER.debug("Cached " + projectIndex.size() + " compilation units for type resolution.");
+                int parsedIndex = 0;
+                for (int i = 0; i < outcomes.size(); i++) {
+                    if (outcomes.get(i) == null) {
+                        final ParseOutcome outcome = parsed.get(parsedIndex);
+                        // Aborted files are not cached, their outcome depends on the budget.
+                        if (cache.enabled() && !outcome.aborted) {
+                            final String failureReason = outcome.failure != null
+                                ? events.failureReasons().get(outcome.failure.path()) : null;
+                            cache.put(uncachedKeys.get(parsedIndex), new ParseCache.Fragment(
+                                outcome.model, outcome.failure != null, failureReason, Collections.emptyList()));
+                        }
+                        outcomes.set(i, outcome);
+                        parsedIndex++;
+                    }
+                }
+            } catch (Exception e) {
+                throw new CompileException("An error occurred while parsing!", e);
+            } finally {
+                projectIndex.clear();
+            }
+        }
+        cache.evict();
+        // Prepared files that were cached or not part of this compile are dropped as well.
+        this.preparedUnits.clear();
+        final long mergeStart = events.phaseStarted(Phase.MERGE);
+        final OOPSourceCodeModel mergedModel = new OOPSourceCodeModel(symbols);
+        final Set<ProjectFile> compileFailures = new HashSet<>();
+        for (final ParseOutcome outcome : outcomes) {
+            mergedModel.merge(outcome.model);
             if (outcome.failure != null) {
                 compileFailures.add(outcome.failure);
             }
         }
-        return new ParseResults(srcModel, compileFailures);
+        events.phaseFinished(Phase.MERGE, mergeStart);
+        return new ParseResults(mergedModel, compileFailures);
+    }
+
+    private List<ParseOutcome> parseJavaFiles(final List<ProjectFile> files,
+                                              final JavaProjectIndex projectIndex,
+                                              final SymbolTable symbols,
+                                              final CompileEvents events) {
+        final int parallelism = CompilerParallelism.resolve(files.size());
+        if (parallelism > 1) {
+            LOGGER.info("Parsing Java files in parallel using " + parallelism + " threads.");
+            return parseJavaFilesParallel(files, projectIndex, symbols, events, parallelism);
+        }
+        return parseJavaFilesSerial(files, projectIndex, symbols, events);
+    }
+
+    private List<ParseOutcome> parseJavaFilesSerial(final List<ProjectFile> files,
+                                                    final JavaProjectIndex projectIndex,
+                                                    final SymbolTable symbols,
+                                                    final CompileEvents events) {
+        final List<ParseOutcome> outcomes = new ArrayList<>();
+        CombinedTypeSolver typeSolver = setupTypeSolver(projectIndex);
+        JavaParser parser = new JavaParser(setupParserConfig(typeSolver));
+        for (int i = 0; i < files.size(); i++) {
+            final ParseOutcome outcome = parseSingleFile(parser, typeSolver, projectIndex, this.preparedUnits,
+                                                         symbols, events, this.budget, files.get(i), i);
+            if (outcome.aborted) {
+                // An abandoned parse of the aborted file may still be using the parser.
+                typeSolver = setupTypeSolver(projectIndex);
+                parser = new JavaParser(setupParserConfig(typeSolver));
+            }
+            outcomes.add(outcome);
+        }
+        return outcomes;
     }
 
     @SuppressWarnings("PMD.CloseResource")
-    private ParseResults parseJavaFilesParallel(final List<ProjectFile> files, final String persistDir,
-                                                final int parallelism) {
+    private List<ParseOutcome> parseJavaFilesParallel(final List<ProjectFile> files,
+                                                      final JavaProjectIndex projectIndex,
+                                                      final SymbolTable symbols,
+                                                      final CompileEvents events,
+                                                      final int parallelism) {
         final ExecutorService executor = Executors.newFixedThreadPool(parallelism);
         try {
             final ThreadLocal<ParserContext> parserContext = ThreadLocal.withInitial(
-                    () -> new ParserContext(persistDir));
+                    () -> new ParserContext(projectIndex, this.preparedUnits, symbols, events, this.budget));
             final List<Future<ParseOutcome>> futures = new ArrayList<>();
             for (int i = 0; i < files.size(); i++) {
                 final int index = i;
@@ -114,106 +370,103 @@ public class ClarpseJavaCompiler implements ClarpseCompiler {
                 }
             }
             outcomes.sort((a, b) -> Integer.compare(a.index, b.index));
-            final OOPSourceCodeModel mergedModel = new OOPSourceCodeModel();
-            final Set<ProjectFile> compileFailures = new HashSet<>();
-            for (final ParseOutcome outcome : outcomes) {
-                mergedModel.merge(outcome.model);
-                if (outcome.failure != null) {
-                    compileFailures.add(outcome.failure);
-                }
-            }
-            return new ParseResults(mergedModel, compileFailures);
+            return outcomes;
         } finally {
-            executor.shutdown();
-            try {
-                if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
-                    executor.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                executor.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
+            CompilerParallelism.shutdown(executor);
         }
     }
 
-    private ParseOutcome parseSingleFile(final JavaParser parser,
-                                         final CombinedTypeSolver typeSolver,
-                                         final ProjectFile file) {
-        final OOPSourceCodeModel localModel = new OOPSourceCodeModel();
+    private static ParseOutcome parseSingleFile(final JavaParser parser,
+                                                final CombinedTypeSolver typeSolver,
+                                                final JavaProjectIndex projectIndex,
+                                                final AstCache<CompilationUnit> preparedUnits,
+                                                final SymbolTable symbols,
+                                                final CompileEvents events,
+                                                final FileBudget budget,
+                                                final ProjectFile file,
+                                                final int index) {
+        final OOPSourceCodeModel localModel = new OOPSourceCodeModel(symbols);
         ProjectFile failure = null;
+        final long start = events.fileStarted(file);
         try {
-            final CompilationUnit cu = parser.parse(ParseStart.COMPILATION_UNIT,
-                    new StringProvider(file.content())).getResult().get();
+            final FileBudget.Deadline deadline = budget.start(file);
+            final long parseStart = events.phaseStarted(Phase.PARSE, file);
+            CompilationUnit cu = preparedUnits.release(file);
+            if (cu == null) {
+                cu = deadline.run(() -> parser.parse(ParseStart.COMPILATION_UNIT,
+                        new StringProvider(file.content())).getResult().get());
+            } else {
+                cu.setData(Node.SYMBOL_RESOLVER_KEY, parser.getParserConfiguration().getSymbolResolver().get());
+            }
+            events.phaseFinished(Phase.PARSE, file, parseStart);
+            deadline.check();
             if (cu.getParsed() == Node.Parsedness.UNPARSABLE || file.content().isEmpty()) {
                 LOGGER.warn("Compilation unit (" + file.path() + ") is unparseable!");
                 failure = file;
+                events.fileFailed(file, null);
             }
-            new JavaTreeListener(localModel, file, typeSolver).visit(cu, null);
+            final long resolutionStart = events.phaseStarted(Phase.SYMBOL_RESOLUTION, file);
+            final CompilationUnit parsedUnit = cu;
+            deadline.run(() -> {
+                new JavaTreeListener(localModel, file, typeSolver, projectIndex, deadline).visit(parsedUnit, null);
+                return null;
+            });
+            events.phaseFinished(Phase.SYMBOL_RESOLUTION, file, resolutionStart);
+        } catch (final FileBudgetExceededException e) {
+            LOGGER.warn("Aborted file " + file.path() + ". " + e.getMessage());
+            events.fileFailed(file, e);
+            events.fileFinished(file, start);
+            return new ParseOutcome(index, new OOPSourceCodeModel(), file, true);
         } catch (final Exception e) {
             LOGGER.error("Failed to parse file " + file.path() + ".", e);
             failure = file;
+            events.fileFailed(file, e);
         }
-        return new ParseOutcome(-1, localModel, failure);
+        events.fileFinished(file, start);
+        return new ParseOutcome(index, localModel, failure);
     }
 
-    private int resolveParallelism(final int fileCount) {
-        if (fileCount < MIN_FILES_FOR_PARALLEL) {
-            return 1;
-        }
-        final String override = System.getenv(PARALLELISM_ENV);
-        if (override != null) {
-            try {
-                final int requested = Integer.parseInt(override.trim());
-                if (requested <= 1) {
-                    return 1;
-                }
-                return Math.min(requested, fileCount);
-            } catch (NumberFormatException ignored) {
-            }
-        }
-        final int available = Runtime.getRuntime().availableProcessors();
-        return Math.max(1, Math.min(available, fileCount));
-    }
-
-    private void classifyRefs(OOPSourceCodeModel srcModel) {
-        srcModel.components().forEach(component -> {
-            final Set<ComponentReference> internalReferences = new LinkedHashSet<>();
-            final Set<ComponentReference> externalReferences = new LinkedHashSet<>();
-            component.references().forEach(componentReference -> {
-                final boolean isInternal = srcModel.containsComponent(componentReference.invokedComponent());
-                componentReference.setExternal(!isInternal);
-                if (isInternal) {
-                    internalReferences.add(componentReference);
-                } else {
-                    externalReferences.add(componentReference);
-                }
-            });
-            component.setReferenceClassification(internalReferences, externalReferences);
-        });
+    private void classifyRefs(final OOPSourceCodeModel srcModel, final Collection<Component> components) {
+        components.forEach(component -> component.classifyReferences(
+            componentReference -> srcModel.containsComponent(componentReference.invokedComponent())));
         LOGGER.debug("Classified component references as internal/external.");
     }
 
-    private static CombinedTypeSolver setupTypeSolver(String persistDir) {
+    private static CombinedTypeSolver setupTypeSolver(final JavaProjectIndex projectIndex) {
         final CombinedTypeSolver typeSolver = new CombinedTypeSolver();
         typeSolver.add(new ReflectionTypeSolver());
-        typeSolver.add(new JavaParserTypeSolver(persistDir));
+        typeSolver.add(new ProjectFilesTypeSolver(projectIndex));
         return typeSolver;
     }
 
     private static ParserConfiguration setupParserConfig(CombinedTypeSolver typeSolver) {
+        return setupParserConfig().setSymbolResolver(new JavaSymbolSolver(typeSolver));
+    }
+
+    private static ParserConfiguration setupParserConfig() {
         final ParserConfiguration parserConfiguration = new ParserConfiguration();
         parserConfiguration.setLanguageLevel(ParserConfiguration.LanguageLevel.BLEEDING_EDGE);
-        parserConfiguration.setSymbolResolver(new JavaSymbolSolver(typeSolver));
         parserConfiguration.setIgnoreAnnotationsWhenAttributingComments(true);
         return parserConfiguration;
     }
 
     private static final class ParserContext {
         private final CombinedTypeSolver typeSolver;
+        private final JavaProjectIndex projectIndex;
+        private final AstCache<CompilationUnit> preparedUnits;
+        private final SymbolTable symbols;
+        private final CompileEvents events;
+        private final FileBudget budget;
         private final JavaParser parser;
 
-        private ParserContext(final String persistDir) {
-            this.typeSolver = setupTypeSolver(persistDir);
+        private ParserContext(final JavaProjectIndex projectIndex, final AstCache<CompilationUnit> preparedUnits,
+                              final SymbolTable symbols, final CompileEvents events, final FileBudget budget) {
+            this.typeSolver = setupTypeSolver(projectIndex);
+            this.projectIndex = projectIndex;
+            this.preparedUnits = preparedUnits;
+            this.symbols = symbols;
+            this.events = events;
+            this.budget = budget;
             this.parser = new JavaParser(setupParserConfig(this.typeSolver));
         }
     }
@@ -232,11 +485,21 @@ public class ClarpseJavaCompiler implements ClarpseCompiler {
         private final int index;
         private final OOPSourceCodeModel model;
         private final ProjectFile failure;
+        /**
+         * Whether the file was aborted because it exceeded its budget.
+         */
+        private final boolean aborted;
 
         private ParseOutcome(final int index, final OOPSourceCodeModel model, final ProjectFile failure) {
+            this(index, model, failure, false);
+        }
+
+        private ParseOutcome(final int index, final OOPSourceCodeModel model, final ProjectFile failure,
+                             final boolean aborted) {
             this.index = index;
             this.model = model;
             this.failure = failure;
+            this.aborted = aborted;
         }
     }
 
@@ -254,21 +517,15 @@ public class ClarpseJavaCompiler implements ClarpseCompiler {
         @Override
         public ParseOutcome call() {
             final ParserContext parserContext = context.get();
-            final OOPSourceCodeModel localModel = new OOPSourceCodeModel();
-            ProjectFile failure = null;
-            try {
-                final CompilationUnit cu = parserContext.parser.parse(ParseStart.COMPILATION_UNIT,
-                        new StringProvider(file.content())).getResult().get();
-                if (cu.getParsed() == Node.Parsedness.UNPARSABLE || file.content().isEmpty()) {
-                    LOGGER.warn("Compilation unit (" + file.path() + ") is unparseable!");
-                    failure = file;
-                }
-                new JavaTreeListener(localModel, file, parserContext.typeSolver).visit(cu, null);
-            } catch (final Exception e) {
-                LOGGER.error("Failed to parse file " + file.path() + ".", e);
-                failure = file;
+            final ParseOutcome outcome = parseSingleFile(
+                parserContext.parser, parserContext.typeSolver, parserContext.projectIndex,
+                parserContext.preparedUnits, parserContext.symbols, parserContext.events, parserContext.budget,
+                file, index);
+            if (outcome.aborted) {
+                // An abandoned parse of the aborted file may still be using the parser.
+                context.remove();
             }
-            return new ParseOutcome(index, localModel, failure);
+            return outcome;
         }
     }
 }
@@ -1,46 +1,325 @@
 package com.hadi.clarpse.compiler;
 
+import com.hadi.clarpse.sourcemodel.Component;
+import com.hadi.clarpse.sourcemodel.OOPSourceCodeModel;
+import org.apache.commons.io.FilenameUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+
 /**
  * Represents a source code project that is analyzed to produce an object-oriented representation
- * of the code.
+ * of the code. Projects may span several languages, whose compilers then run concurrently over
+ * the same project files and whose models are merged into a single result.
  */
 public class ClarpseProject {
 
     private static final Logger LOGGER = LogManager.getLogger(ClarpseProject.class);
-    private final ProjectFiles projectFiles;
-    private final Lang lang;
+    private ProjectFiles projectFiles;
+    private final CompilePipeline.Source pipelineSource;
+    private final List<Lang> langs;
+    private final Map<Lang, CompileResult> langResults = new EnumMap<>(Lang.class);
+    private final List<CompileListener> listeners = new ArrayList<>();
+    private FileBudget fileBudget = FileBudget.fromEnvironment();
+    private AstMemoryBudget memoryBudget = AstMemoryBudget.shared();
+    private ParseCache parseCache = ParseCache.fromEnvironment();
     private CompileResult compileResult;
 
     public ClarpseProject(ProjectFiles pfs, Lang lang) {
-        validateInput(lang);
+        this(pfs, Collections.singletonList(lang));
+    }
+
+    /**
+     * Creates a project whose files are compiled by the compilers of all the given languages.
+     */
+    public ClarpseProject(final ProjectFiles pfs, final Collection<Lang> langs) {
+        this.langs = validateInput(langs);
         this.projectFiles = pfs;
-        this.lang = lang;
+        this.pipelineSource = null;
+    }
+
+    /**
+     * Creates a project from a path to a local directory or zip file. The files are only read
+     * once the result is requested, and the compiler starts parsing them while the remaining
+     * files are still being read.
+     */
+    public ClarpseProject(final String projectPath, final Lang lang) {
+        this(projectPath, Collections.singletonList(lang));
+    }
+
+    /**
+     * Creates a project from a path to a local directory or zip file, whose files are read as
+     * described in {@link #ClarpseProject(String, Lang)} and compiled by the compilers of all the
+     * given languages.
+     */
+    public ClarpseProject(final String projectPath, final Collection<Lang> langs) {
+        this(langs, ingestionListener -> new ProjectFiles(projectPath, false, Collections.emptyList(),
+                                                          Collections.emptyList(), ingestionListener));
+    }
+
+    /**
+     * Creates a project from an input stream to a zip file. The stream is only read once the
+     * result is requested, and the compiler starts parsing files while the remaining files are
+     * still being decompressed.
+     */
+    public ClarpseProject(final InputStream zipFileInputStream, final Lang lang) {
+        this(zipFileInputStream, Collections.singletonList(lang));
+    }
+
+    /**
+     * Creates a project from an input stream to a zip file, whose files are read as described in
+     * {@link #ClarpseProject(InputStream, Lang)} and compiled by the compilers of all the given
+     * languages.
+     */
+    public ClarpseProject(final InputStream zipFileInputStream, final Collection<Lang> langs) {
+        this(langs, ingestionListener -> new ProjectFiles(zipFileInputStream, false, ingestionListener));
+    }
+
+    private ClarpseProject(final Collection<Lang> langs, final CompilePipeline.Source pipelineSource) {
+        this.langs = validateInput(langs);
+        this.pipelineSource = pipelineSource;
     }
 
-    private void validateInput(Lang lang) {
-        if (!supportedLang(lang)) {
+    private List<Lang> validateInput(final Collection<Lang> langs) {
+        if (langs.isEmpty() || !langs.stream().allMatch(this::supportedLang)) {
             throw new IllegalArgumentException("The specified source language is not supported!");
         }
+        return new ArrayList<>(new LinkedHashSet<>(langs));
+    }
+
+    /**
+     * Registers a listener that is notified of the events of all following compilations of
+     * this project.
+     */
+    public void addListener(final CompileListener listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Sets the budget of every file of all following compilations of this project, see
+     * {@link ClarpseCompiler#setFileBudget}.
+     */
+    public void setFileBudget(final FileBudget budget) {
+        this.fileBudget = budget;
+    }
+
+    /**
+     * Sets the budget of the parsed files retained in memory by all following compilations of
+     * this project, see {@link ClarpseCompiler#setAstMemoryBudget}.
+     */
+    public void setAstMemoryBudget(final AstMemoryBudget budget) {
+        this.memoryBudget = budget;
+    }
+
+    /**
+     * Sets the on-disk cache of per-file parse results used by all following compilations of
+     * this project, see {@link ClarpseCompiler#setParseCache}.
+     */
+    public void setParseCache(final ParseCache cache) {
+        this.parseCache = cache;
+    }
+
+    private ClarpseCompiler compiler(final Lang lang) throws CompileException {
+        final ClarpseCompiler compiler = CompilerFactory.getParsingTool(lang);
+        this.listeners.forEach(compiler::addListener);
+        compiler.setFileBudget(this.fileBudget);
+        compiler.setAstMemoryBudget(this.memoryBudget);
+        compiler.setParseCache(this.parseCache);
+        return compiler;
     }
 
     public CompileResult result() throws CompileException {
         if (this.compileResult == null) {
-            LOGGER.info("Parsing " + this.projectFiles.size() + " source files..");
             long startTime = System.nanoTime();
-            final ClarpseCompiler parsingTool = CompilerFactory.getParsingTool(this.lang);
-            CompileResult compileRes = parsingTool.compile(this.projectFiles);
+            final CompileEvents events = new CompileEvents(null, this.listeners);
+            final Map<Lang, ClarpseCompiler> compilers = new LinkedHashMap<>();
+            for (final Lang lang : this.langs) {
+                compilers.put(lang, compiler(lang));
+            }
+            if (this.projectFiles == null) {
+                final long ingestionStart = events.phaseStarted(CompileMetrics.Phase.INGESTION);
+                try {
+                    this.projectFiles = CompilePipeline.read(this.pipelineSource, compilers.values());
+                } catch (final Exception e) {
+                    throw new CompileException("An error occurred while reading project files!", e);
+                }
+                events.phaseFinished(CompileMetrics.Phase.INGESTION, ingestionStart);
+            }
+            LOGGER.info("Parsing " + this.projectFiles.size() + " source files..");
+            compileAll(compilers);
+            this.compileResult = combinedResult(this.langs, events);
+            final CompileMetrics metrics = this.compileResult.metrics();
+            metrics.setTotalNanos(System.nanoTime() - startTime);
             long duration = (System.nanoTime() - startTime) / 1000000;
-            LOGGER.info("Parsed " + compileRes.model().size() + " components from "
+            LOGGER.info("Parsed " + this.compileResult.model().size() + " components from "
                     + this.projectFiles.size() + " files in " + duration + " ms.");
-            this.compileResult = compileRes;
+            LOGGER.debug(metrics);
         }
         LOGGER.info("Returning generated compile result ..");
         return this.compileResult;
     }
 
+    /**
+     * Compiles the project files with the given compilers, concurrently if there are several.
+     */
+    private void compileAll(final Map<Lang, ClarpseCompiler> compilers) throws CompileException {
+        if (compilers.size() == 1) {
+            final Map.Entry<Lang, ClarpseCompiler> compiler = compilers.entrySet().iterator().next();
+            this.langResults.put(compiler.getKey(), compiler.getValue().compile(this.projectFiles));
+            return;
+        }
+        LOGGER.info("Compiling " + compilers.keySet() + " source files concurrently..");
+        final List<Callable<CompileResult>> tasks = new ArrayList<>();
+        compilers.values().forEach(compiler -> tasks.add(() -> compiler.compile(this.projectFiles)));
+        final List<CompileResult> results;
+        try {
+            results = CompilerParallelism.invokeAll(tasks, tasks.size());
+        } catch (final Exception e) {
+            throw new CompileException("An error occurred while compiling " + compilers.keySet() + " files!", e);
+        }
+        int i = 0;
+        for (final Lang lang : compilers.keySet()) {
+            this.langResults.put(lang, results.get(i++));
+        }
+    }
+
+    /**
+     * Returns the result of the only language of this project, or otherwise a result merging the
+     * models, failures and failure reasons of all its languages. The metrics of the result add up the given
+     * project events and the metrics of the given languages that were just compiled.
+     */
+    private CompileResult combinedResult(final Collection<Lang> compiledLangs, final CompileEvents events) {
+        if (this.langs.size() == 1) {
+            final CompileResult result = this.langResults.get(this.langs.get(0));
+            result.metrics().merge(events.metrics());
+            return result;
+        }
+        final OOPSourceCodeModel model = new OOPSourceCodeModel();
+        final Set<ProjectFile> failures = new HashSet<>();
+        final Map<String, String> failureReasons = new HashMap<>();
+        compiledLangs.forEach(lang -> events.metrics().merge(this.langResults.get(lang).metrics()));
+        final long mergeStart = events.phaseStarted(CompileMetrics.Phase.MERGE);
+        for (final Lang lang : this.langs) {
+            mergeLangModel(lang, model, failures, failureReasons);
+            failures.addAll(this.langResults.get(lang).failures());
+            failureReasons.putAll(this.langResults.get(lang).failureReasons());
+        }
+        events.phaseFinished(CompileMetrics.Phase.MERGE, mergeStart);
+        return new CompileResult(model, failures, events.metrics(), failureReasons);
+    }
+
+    /**
+     * Merges the model of the given language into the given model. Components whose unique names
+     * are already taken by a component of an earlier language of this project are not merged,
+     * their source files are recorded as failures instead.
+     */
+    private void mergeLangModel(final Lang lang, final OOPSourceCodeModel model, final Set<ProjectFile> failures,
+                                final Map<String, String> failureReasons) {
+        final Map<String, List<String>> collisions = new LinkedHashMap<>();
+        this.langResults.get(lang).model().components().forEach(cmp -> {
+            final Optional<Component> existing = model.getComponent(cmp.uniqueName());
+            if (existing.isEmpty()) {
+                // Components stay interned in the symbol table of their language's model.
+                model.insertInternedComponent(cmp);
+                return;
+            }
+            LOGGER.warn("Skipped " + lang.value() + " component " + cmp.uniqueName() + " of " + cmp.sourceFile()
+                            + ", its unique name is already taken by a component of " + existing.get().sourceFile()
+                            + ".");
+            collisions.computeIfAbsent(cmp.sourceFile(), path -> new ArrayList<>()).add(cmp.uniqueName());
+        });
+        this.projectFiles.files(lang).stream().filter(file -> collisions.containsKey(file.path())).forEach(file -> {
+            failures.add(file);
+            failureReasons.put(file.path(), "The file declares components whose unique names are already taken by "
+                + "files of another language: " + collisions.get(file.path()) + ".");
+        });
+    }
+
+    /**
+     * Applies the given file changes to the project and incrementally updates the compile
+     * result, only re-parsing the files affected by the changes. When files are read from a local
+     * directory, the directory is expected to reflect the given changes as well.
+     * <p>
+     * The model of the previously returned result is updated in place where possible, so an
+     * update invalidates all results returned before it: their models may change and their
+     * {@link CompileResult#index() indexes} no longer match their models. Callers that need a
+     * previous result after an update must copy what they need before updating.
+     * <p>
+     * Unchanged Java files are re-parsed as well when they reference a type declared by a
+     * changed file, or a subtype of such a type, as their references may resolve differently
+     * after the change. Other unchanged files keep their references, only their classification
+     * as internal or external is refreshed, so files whose references resolve through a changed
+     * type without referencing it or its subtypes may keep stale references until they change.
+     *
+     * @param changedFiles Files that were added or modified.
+     * @param deletedFiles Paths of files that were deleted.
+     */
+    public CompileResult update(final Collection<ProjectFile> changedFiles,
+                                final Collection<String> deletedFiles) throws CompileException {
+        if (this.projectFiles == null) {
+            result();
+        }
+        final ProjectFiles previousFiles = this.projectFiles.copy();
+        final Set<String> changedPaths = new HashSet<>();
+        final Set<String> deletedPaths = new HashSet<>(deletedFiles);
+        deletedFiles.forEach(this.projectFiles::removeFile);
+        for (final ProjectFile changedFile : changedFiles) {
+            this.projectFiles.replaceFile(changedFile);
+            changedPaths.add(changedFile.path());
+            deletedPaths.remove(changedFile.path());
+        }
+        if (this.compileResult == null) {
+            return result();
+        }
+        LOGGER.info("Updating compile result for " + changedPaths.size() + " changed and "
+                        + deletedPaths.size() + " deleted files..");
+        long startTime = System.nanoTime();
+        final List<Lang> compiledLangs = new ArrayList<>();
+        for (final Lang lang : this.langs) {
+            final Set<String> langChangedPaths = pathsOf(lang, changedPaths);
+            final Set<String> langDeletedPaths = pathsOf(lang, deletedPaths);
+            if (this.langs.size() == 1 || !langChangedPaths.isEmpty() || !langDeletedPaths.isEmpty()) {
+                final ClarpseCompiler parsingTool = compiler(lang);
+                this.langResults.put(lang, parsingTool.recompile(this.projectFiles, previousFiles,
+                                                                 this.langResults.get(lang), langChangedPaths,
+                                                                 langDeletedPaths));
+                compiledLangs.add(lang);
+            }
+        }
+        this.compileResult = combinedResult(compiledLangs, new CompileEvents(null, this.listeners));
+        this.compileResult.metrics().setTotalNanos(System.nanoTime() - startTime);
+        long duration = (System.nanoTime() - startTime) / 1000000;
+        LOGGER.info("Updated compile result in " + duration + " ms.");
+        return this.compileResult;
+    }
+
+    /**
+     * Returns the given paths of files of the given language, or all given paths if this
+     * project has a single language.
+     */
+    private Set<String> pathsOf(final Lang lang, final Set<String> paths) {
+        if (this.langs.size() == 1) {
+            return paths;
+        }
+        return paths.stream().filter(
+            path -> Lang.langFromExtn(FilenameUtils.getExtension(path)) == lang).collect(Collectors.toSet());
+    }
+
     private boolean supportedLang(final Lang language) throws IllegalArgumentException {
         boolean isValidLang = false;
         for (Lang tmpLang : Lang.supportedLanguages()) {
@@ -0,0 +1,117 @@
+package com.hadi.clarpse.compiler;
+
+import com.hadi.clarpse.compiler.CompileMetrics.Phase;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sends the events of a single compilation to the {@link CompileMetrics} of the compilation and
+ * to the registered {@link CompileListener listeners}. Events carry {@link System#nanoTime()}
+ * timestamps, the methods marking the end of a phase or file take the timestamp of its start.
+ * When no listener is registered, events only update the metrics.
+ */
+public final class CompileEvents {
+
+    private static final CompileListener[] NO_LISTENERS = new CompileListener[0];
+
+    private final Lang lang;
+    private final CompileListener[] listeners;
+    private final CompileMetrics metrics = new CompileMetrics();
+    private final Map<String, String> failureReasons = new ConcurrentHashMap<>();
+
+    public CompileEvents(final Lang lang, final Collection<CompileListener> listeners) {
+        this.lang = lang;
+        this.listeners = listeners.toArray(NO_LISTENERS);
+    }
+
+    public CompileMetrics metrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Returns the reasons of the files that failed because of an exception, keyed by path.
+     */
+    public Map<String, String> failureReasons() {
+        return this.failureReasons;
+    }
+
+    /**
+     * Marks the start of a phase that runs for the whole project and returns its timestamp.
+     */
+    public long phaseStarted(final Phase phase) {
+        return phaseStarted(phase, null);
+    }
+
+    /**
+     * Marks the start of a phase that runs for the given file and returns its timestamp.
+     */
+    public long phaseStarted(final Phase phase, final ProjectFile file) {
+        for (final CompileListener listener : this.listeners) {
+            listener.phaseStarted(this.lang, phase, file);
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Marks the end of a phase that runs for the whole project and returns its timestamp.
+     */
+    public long phaseFinished(final Phase phase, final long startNanos) {
+        return phaseFinished(phase, null, startNanos);
+    }
+
+    /**
+     * Marks the end of a phase that runs for the given file and returns its timestamp.
+     */
+    public long phaseFinished(final Phase phase, final ProjectFile file, final long startNanos) {
+        final long now = System.nanoTime();
+        final long durationNanos = now - startNanos;
+        this.metrics.phaseFinished(this.lang, phase, file, durationNanos);
+        for (final CompileListener listener : this.listeners) {
+            listener.phaseFinished(this.lang, phase, file, durationNanos);
+        }
+        return now;
+    }
+
+    public long fileStarted(final ProjectFile file) {
+        for (final CompileListener listener : this.listeners) {
+            listener.fileStarted(this.lang, file);
+        }
+        return System.nanoTime();
+    }
+
+    public void fileFinished(final ProjectFile file, final long startNanos) {
+        final long durationNanos = System.nanoTime() - startNanos;
+        this.metrics.fileFinished(this.lang, file, durationNanos);
+        for (final CompileListener listener : this.listeners) {
+            listener.fileFinished(this.lang, file, durationNanos);
+        }
+    }
+
+    public void fileFailed(final ProjectFile file, final Throwable cause) {
+        if (cause != null) {
+            this.failureReasons.put(file.path(), cause.getMessage() != null ? cause.getMessage()
+                                                                            : cause.toString());
+        }
+        for (final CompileListener listener : this.listeners) {
+            listener.fileFailed(this.lang, file, cause);
+        }
+    }
+
+    /**
+     * Sends the events of a file whose parse result was taken from the given parse cache entry.
+     * A cached failure is sent with a {@link CompileException} carrying its original reason.
+     *
+     * @param startNanos Timestamp of the start of the cache lookup.
+     */
+    public void fileCached(final ProjectFile file, final ParseCache.Fragment fragment, final long startNanos) {
+        for (final CompileListener listener : this.listeners) {
+            listener.fileStarted(this.lang, file);
+        }
+        if (fragment.failed()) {
+            fileFailed(file, fragment.failureReason().map(CompileException::new).orElse(null));
+        }
+        fileFinished(file, startNanos);
+    }
+}
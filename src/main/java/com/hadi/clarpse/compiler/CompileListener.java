@@ -0,0 +1,52 @@
+package com.hadi.clarpse.compiler;
+
+import com.hadi.clarpse.compiler.CompileMetrics.Phase;
+
+/**
+ * Receives events of compilations, e.g. to trace the compilation of every file or to bridge
+ * compile timings to a monitoring system. Listeners are registered with
+ * {@link ClarpseProject#addListener} or {@link ClarpseCompiler#addListener}.
+ * <p>
+ * Events of a file are sent from the parser thread compiling the file, so listeners must be
+ * thread safe and should return quickly. Phases run either for the whole project or for a
+ * single file, the events of the phases of a file are sent between the start and end events of
+ * the file. Files taken from the parse cache are reported as well, without any phase events.
+ */
+public interface CompileListener {
+
+    /**
+     * @param lang  Language of the compiler running the phase, or null for phases that are not
+     *              run by a compiler, such as ingestion.
+     * @param phase Phase that started.
+     * @param file  File the phase runs for, or null if it runs for the whole project.
+     */
+    default void phaseStarted(Lang lang, Phase phase, ProjectFile file) {
+    }
+
+    /**
+     * @param lang          See {@link #phaseStarted}.
+     * @param phase         Phase that finished.
+     * @param file          See {@link #phaseStarted}.
+     * @param durationNanos Time the phase took.
+     */
+    default void phaseFinished(Lang lang, Phase phase, ProjectFile file, long durationNanos) {
+    }
+
+    default void fileStarted(Lang lang, ProjectFile file) {
+    }
+
+    /**
+     * @param durationNanos Time the compiler spent on the file.
+     */
+    default void fileFinished(Lang lang, ProjectFile file, long durationNanos) {
+    }
+
+    /**
+     * Sent when a file could not be compiled, before the file finished.
+     *
+     * @param cause Exception that aborted the compilation of the file, or null if the file has
+     *              syntax errors.
+     */
+    default void fileFailed(Lang lang, ProjectFile file, Throwable cause) {
+    }
+}
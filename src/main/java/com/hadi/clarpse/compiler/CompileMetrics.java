@@ -0,0 +1,189 @@
+package com.hadi.clarpse.compiler;
+
+import com.hadi.clarpse.sourcemodel.OOPSourceCodeModel;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Timings and counters of a compilation, telling where the time of a slow compilation went.
+ * <p>
+ * Phases that run on several parser threads, such as parsing, record the time spent on each
+ * thread, so the time of a phase may exceed the total time of the compilation. Files are timed
+ * from the start until the end of their compilation, which covers parsing them as well as
+ * building their components and resolving their references, or taking them from the parse
+ * cache. Metrics are recorded concurrently by parser threads, they are only meant to be read
+ * once the compile result was returned.
+ * <p>
+ * Compilers record metrics via {@link CompileEvents}, to which metrics listen like any other
+ * {@link CompileListener}.
+ */
+public final class CompileMetrics implements CompileListener {
+
+    /**
+     * Phases of a compilation, not every compiler goes through every phase.
+     */
+    public enum Phase {
+        /**
+         * Reading the project files, including the work compilers do on files as soon as they
+         * were read.
+         */
+        INGESTION,
+        /**
+         * Parsing source files into syntax trees.
+         */
+        PARSE,
+        /**
+         * Walking syntax trees to build components and resolving the types they reference.
+         */
+        SYMBOL_RESOLUTION,
+        /**
+         * Merging per file models into the project model.
+         */
+        MERGE,
+        /**
+         * Classifying component references as internal or external.
+         */
+        CLASSIFY_REFERENCES,
+        /**
+         * Resolving the interfaces implemented by Go structs.
+         */
+        INTERFACE_RESOLUTION,
+        /**
+         * Resolving the imports and exports of JavaScript modules.
+         */
+        MODULE_RESOLUTION
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final long NANOS_PER_MS = 1000000;
+
+    private final AtomicLongArray phaseNanos = new AtomicLongArray(PHASES.length);
+    private final Map<String, Long> fileNanos = new ConcurrentHashMap<>();
+    private final long startNanos = System.nanoTime();
+    private long totalNanos;
+    private int componentCount;
+    private long referenceCount;
+    private int failureCount;
+
+    @Override
+    public void phaseFinished(final Lang lang, final Phase phase, final ProjectFile file,
+                              final long durationNanos) {
+        addTime(phase, durationNanos);
+    }
+
+    @Override
+    public void fileFinished(final Lang lang, final ProjectFile file, final long durationNanos) {
+        this.fileNanos.merge(file.path(), durationNanos, Long::sum);
+    }
+
+    private void addTime(final Phase phase, final long nanos) {
+        this.phaseNanos.addAndGet(phase.ordinal(), nanos);
+    }
+
+    /**
+     * Adds the timings of the given metrics to these metrics.
+     */
+    public void merge(final CompileMetrics other) {
+        for (final Phase phase : PHASES) {
+            addTime(phase, other.phaseNanos.get(phase.ordinal()));
+        }
+        other.fileNanos.forEach((path, nanos) -> this.fileNanos.merge(path, nanos, Long::sum));
+    }
+
+    /**
+     * Records the counters of the given compile result and the time elapsed since these
+     * metrics were created as the total time.
+     */
+    void complete(final OOPSourceCodeModel model, final Collection<ProjectFile> failures) {
+        this.totalNanos = System.nanoTime() - this.startNanos;
+        this.componentCount = model.size();
+        this.referenceCount = model.components().mapToLong(cmp -> cmp.references().size()).sum();
+        this.failureCount = failures == null ? 0 : failures.size();
+    }
+
+    void setTotalNanos(final long totalNanos) {
+        this.totalNanos = totalNanos;
+    }
+
+    public Duration totalTime() {
+        return Duration.ofNanos(this.totalNanos);
+    }
+
+    public Duration phaseTime(final Phase phase) {
+        return Duration.ofNanos(this.phaseNanos.get(phase.ordinal()));
+    }
+
+    /**
+     * Returns the time of every phase, in phase order.
+     */
+    public Map<Phase, Duration> phaseTimes() {
+        final Map<Phase, Duration> times = new EnumMap<>(Phase.class);
+        for (final Phase phase : PHASES) {
+            times.put(phase, phaseTime(phase));
+        }
+        return times;
+    }
+
+    /**
+     * Returns the compile time of every compiled file by its path. The time spent parsing files
+     * is only recorded per phase, see {@link #phaseTime(Phase)}.
+     */
+    public Map<String, Duration> fileTimes() {
+        final Map<String, Duration> times = new LinkedHashMap<>();
+        this.fileNanos.forEach((path, nanos) -> times.put(path, Duration.ofNanos(nanos)));
+        return Collections.unmodifiableMap(times);
+    }
+
+    /**
+     * Returns the compile times of the given number of files that took the longest to compile,
+     * slowest first.
+     */
+    public Map<String, Duration> slowestFiles(final int limit) {
+        final Map<String, Duration> times = new LinkedHashMap<>();
+        this.fileNanos.entrySet().stream().sorted(
+            Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                      .limit(limit).forEach(entry -> times.put(entry.getKey(), Duration.ofNanos(entry.getValue())));
+        return Collections.unmodifiableMap(times);
+    }
+
+    /**
+     * Returns the number of compiled files, including files taken from the parse cache.
+     */
+    public int compiledFileCount() {
+        return this.fileNanos.size();
+    }
+
+    public int componentCount() {
+        return this.componentCount;
+    }
+
+    public long referenceCount() {
+        return this.referenceCount;
+    }
+
+    public int failureCount() {
+        return this.failureCount;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder summary = new StringBuilder("Compiled ").append(this.componentCount)
+            .append(" components with ").append(this.referenceCount).append(" references in ")
+            .append(this.totalNanos / NANOS_PER_MS).append(" ms, ").append(this.failureCount)
+            .append(" files failed to compile. Phase times:");
+        for (final Phase phase : PHASES) {
+            final long nanos = this.phaseNanos.get(phase.ordinal());
+            if (nanos > 0) {
+                summary.append(' ').append(phase).append('=').append(nanos / NANOS_PER_MS).append("ms");
+            }
+        }
+        return summary.append('.').toString();
+    }
+}
@@ -0,0 +1,102 @@
+package com.hadi.clarpse.compiler;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Reads project files while a compiler prepares them for compilation. Each file is handed to a
+ * pool of workers through a bounded queue as soon as it was read, so reading and decompressing
+ * the remaining files overlaps with parsing the files read so far. The queue bounds how far
+ * reading may run ahead of the workers.
+ */
+final class CompilePipeline {
+
+    private static final Logger LOGGER = LogManager.getLogger(CompilePipeline.class);
+    private static final int QUEUED_FILES_PER_WORKER = 4;
+    private static final ProjectFile END_OF_FILES = new ProjectFile("/", "");
+
+    private CompilePipeline() {
+    }
+
+    /**
+     * Reads project files, notifying the given listener of each file as soon as it was read.
+     */
+    @FunctionalInterface
+    interface Source {
+        ProjectFiles read(Consumer<ProjectFile> ingestionListener) throws Exception;
+    }
+
+    /**
+     * Reads the files of the given source on the calling thread while the given compilers
+     * prepare them, see {@link ClarpseCompiler#prepare}, and returns them once all files were
+     * read and prepared.
+     */
+    @SuppressWarnings("PMD.CloseResource")
+    static ProjectFiles read(final Source source, final Collection<ClarpseCompiler> compilers) throws Exception {
+        final int workers = CompilerParallelism.resolve(Integer.MAX_VALUE);
+        LOGGER.info("Preparing files for compilation while reading them using " + workers + " threads.");
+        final BlockingQueue<ProjectFile> queue = new ArrayBlockingQueue<>(workers * QUEUED_FILES_PER_WORKER);
+        final ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            final List<Future<Void>> futures = new ArrayList<>(workers);
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(() -> prepareQueuedFiles(queue, compilers)));
+            }
+            final ProjectFiles projectFiles;
+            try {
+                projectFiles = source.read(file -> enqueue(queue, file));
+            } finally {
+                for (int i = 0; i < workers; i++) {
+                    enqueue(queue, END_OF_FILES);
+                }
+            }
+            for (final Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Failed while preparing files for compilation.", e);
+                }
+            }
+            return projectFiles;
+        } finally {
+            CompilerParallelism.shutdown(executor);
+        }
+    }
+
+    private static void enqueue(final BlockingQueue<ProjectFile> queue, final ProjectFile file) {
+        try {
+            queue.put(file);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing files for compilation.", e);
+        }
+    }
+
+    private static Void prepareQueuedFiles(final BlockingQueue<ProjectFile> queue,
+                                           final Collection<ClarpseCompiler> compilers)
+        throws InterruptedException {
+        ProjectFile file = queue.take();
+        while (file != END_OF_FILES) {
+            for (final ClarpseCompiler compiler : compilers) {
+                try {
+                    compiler.prepare(file);
+                } catch (final Exception e) {
+                    LOGGER.warn("Could not prepare file " + file.path() + ", it is parsed when compiled.", e);
+                }
+            }
+            file = queue.take();
+        }
+        return null;
+    }
+}
@@ -1,32 +1,116 @@
 package com.hadi.clarpse.compiler;
 
+import com.hadi.clarpse.sourcemodel.ModelIndex;
 import com.hadi.clarpse.sourcemodel.OOPSourceCodeModel;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 public class CompileResult {
 
+    /**
+     * Reason of files that could not be parsed for which no other reason is known.
+     */
+    public static final String SYNTAX_ERRORS = "The file is empty or has syntax errors.";
     /**
      * List of files that could not be parsed.
      */
     private Set<ProjectFile> failures;
     private final OOPSourceCodeModel model;
+    private final CompileMetrics metrics;
+    private final Map<String, String> failureReasons;
+    private volatile ModelIndex index;
 
     public CompileResult(OOPSourceCodeModel model) {
-        this.model = model;
+        this(model, null, new CompileMetrics());
     }
 
     public CompileResult(OOPSourceCodeModel model, Set<ProjectFile> failures) {
-        this(model);
+        this(model, failures, new CompileMetrics());
+    }
+
+    /**
+     * Creates a result whose metrics are completed with the counters of the given model and
+     * failures.
+     */
+    public CompileResult(OOPSourceCodeModel model, Set<ProjectFile> failures, CompileMetrics metrics) {
+        this(model, failures, metrics, Collections.emptyMap());
+    }
+
+    /**
+     * Creates a result as described in {@link #CompileResult(OOPSourceCodeModel, Set,
+     * CompileMetrics)}, with the given failure reasons keyed by path. Reasons of files that are
+     * not failures are dropped.
+     */
+    public CompileResult(OOPSourceCodeModel model, Set<ProjectFile> failures, CompileMetrics metrics,
+                         Map<String, String> failureReasons) {
+        this.model = model;
         this.failures = failures;
+        this.metrics = metrics;
+        this.failureReasons = new HashMap<>();
+        if (failures != null) {
+            failures.forEach(failure -> {
+                final String reason = failureReasons.get(failure.path());
+                if (reason != null) {
+                    this.failureReasons.put(failure.path(), reason);
+                }
+            });
+        }
+        metrics.complete(model, failures);
     }
 
     public OOPSourceCodeModel model() {
         return this.model;
     }
 
+    /**
+     * Returns the query index of the compiled model, which is built on first use.
+     */
+    public ModelIndex index() {
+        ModelIndex current = this.index;
+        if (current == null) {
+            synchronized (this) {
+                current = this.index;
+                if (current == null) {
+                    current = new ModelIndex(this.model);
+                    this.index = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Returns the timings and counters of the compilation that produced this result.
+     */
+    public CompileMetrics metrics() {
+        return this.metrics;
+    }
+
     public Collection<ProjectFile> failures() {
         return Set.copyOf(failures);
     }
+
+    /**
+     * Returns why the file with the given path could not be parsed, or nothing if it is not
+     * one of the {@link #failures()}.
+     */
+    public Optional<String> failureReason(String path) {
+        if (this.failures == null || this.failures.stream().noneMatch(failure -> failure.path().equals(path))) {
+            return Optional.empty();
+        }
+        return Optional.of(this.failureReasons.getOrDefault(path, SYNTAX_ERRORS));
+    }
+
+    /**
+     * Returns the reasons of the failures that were caused by an exception, such as an exceeded
+     * {@link FileBudget}, keyed by path. Other failures are caused by {@link #SYNTAX_ERRORS}.
+     */
+    public Map<String, String> failureReasons() {
+        return Collections.unmodifiableMap(this.failureReasons);
+    }
 }
@@ -0,0 +1,113 @@
+package com.hadi.clarpse.compiler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Resolves the number of parser threads language compilers should use and manages the
+ * lifecycle of their worker pools.
+ */
+public final class CompilerParallelism {
+
+    /**
+     * Environment variable controlling the max number of parser threads.
+     */
+    public static final String PARALLELISM_ENV = "CLARPSE_PARALLELISM";
+    private static final int MIN_FILES_FOR_PARALLEL = 2;
+    private static final int SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private CompilerParallelism() {
+    }
+
+    /**
+     * Returns the number of threads to use when parsing the given number of files. Values of
+     * {@code CLARPSE_PARALLELISM} that are 1 or lower force serial parsing, otherwise
+     * {@code min(availableProcessors, fileCount)} is used.
+     */
+    public static int resolve(final int fileCount) {
+        if (fileCount < MIN_FILES_FOR_PARALLEL) {
+            return 1;
+        }
+        final String override = System.getenv(PARALLELISM_ENV);
+        if (override != null) {
+            try {
+                final int requested = Integer.parseInt(override.trim());
+                if (requested <= 1) {
+                    return 1;
+                }
+                return Math.min(requested, fileCount);
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        final int available = Runtime.getRuntime().availableProcessors();
+        return Math.max(1, Math.min(available, fileCount));
+    }
+
+    /**
+     * Runs the given tasks using up to the given number of threads and returns their results in
+     * task order. Tasks are run on the calling thread when parallelism is 1 or lower.
+     */
+    public static <T> List<T> invokeAll(final List<? extends Callable<T>> tasks, final int parallelism)
+        throws Exception {
+        final List<T> results = new ArrayList<>(tasks.size());
+        invokeAll(tasks, parallelism, results::add);
+        return results;
+    }
+
+    /**
+     * Runs the given tasks using up to the given number of threads and passes their results to
+     * the given consumer in task order, each as soon as it and all results before it are
+     * available. Tasks are run on the calling thread when parallelism is 1 or lower.
+     */
+    @SuppressWarnings("PMD.CloseResource")
+    public static <T> void invokeAll(final List<? extends Callable<T>> tasks, final int parallelism,
+                                     final Consumer<T> consumer) throws Exception {
+        if (parallelism <= 1) {
+            for (final Callable<T> task : tasks) {
+                consumer.accept(task.call());
+            }
+            return;
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            final List<Future<T>> futures = new ArrayList<>(tasks.size());
+            for (final Callable<T> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            for (final Future<T> future : futures) {
+                try {
+                    consumer.accept(future.get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while running parser tasks.", e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Failed while running parser tasks in parallel.", e);
+                }
+            }
+        } finally {
+            shutdown(executor);
+        }
+    }
+
+    /**
+     * Shuts down the given worker pool, waiting briefly for in-flight tasks to complete.
+     */
+    public static void shutdown(final ExecutorService executor) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
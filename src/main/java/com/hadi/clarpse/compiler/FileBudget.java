@@ -0,0 +1,184 @@
+package com.hadi.clarpse.compiler;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Limits the time and size compilers may spend on a single file, so that a pathological file,
+ * such as a generated table or a minified bundle, is aborted and reported as a failure instead
+ * of stalling the whole compilation. A limit of 0 or lower disables it.
+ * <p>
+ * Compilers check the {@link Deadline} of a file while tokenizing and walking it, and abort the
+ * file once the deadline passed. Calls that cannot be checked while they run, such as those of
+ * the Java and JavaScript parsers and symbol solvers, are made through {@link Deadline#run},
+ * which abandons them once the deadline passed. An abandoned call cannot be stopped, it keeps
+ * running on a daemon thread until it returns or next checks the deadline, and its result is
+ * discarded.
+ */
+public final class FileBudget {
+
+    /**
+     * Environment variable controlling the max time in milliseconds spent on a single file.
+     */
+    public static final String TIMEOUT_ENV = "CLARPSE_FILE_TIMEOUT_MS";
+    /**
+     * Environment variable controlling the max size of a file in KB (units of 1024 characters).
+     */
+    public static final String MAX_SIZE_ENV = "CLARPSE_MAX_FILE_KB";
+    public static final FileBudget UNLIMITED = new FileBudget(0, 0);
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final long CHARS_PER_KB = 1024L;
+    private final long timeoutMillis;
+    private final long maxChars;
+
+    /**
+     * @param timeoutMillis Max time spent on a single file in milliseconds.
+     * @param maxSizeKb     Max size of a single file in KB, units of 1024 characters.
+     */
+    public FileBudget(final long timeoutMillis, final long maxSizeKb) {
+        this.timeoutMillis = Math.max(0, timeoutMillis);
+        this.maxChars = Math.max(0, maxSizeKb) * CHARS_PER_KB;
+    }
+
+    /**
+     * Returns the budget configured by {@code CLARPSE_FILE_TIMEOUT_MS} and
+     * {@code CLARPSE_MAX_FILE_KB}, both are unlimited if unset.
+     */
+    public static FileBudget fromEnvironment() {
+        return new FileBudget(parse(System.getenv(TIMEOUT_ENV)), parse(System.getenv(MAX_SIZE_ENV)));
+    }
+
+    private static long parse(final String value) {
+        if (value != null) {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return 0;
+    }
+
+    public boolean limited() {
+        return this.timeoutMillis > 0 || this.maxChars > 0;
+    }
+
+    public boolean exceedsSize(final ProjectFile file) {
+        return this.maxChars > 0 && file.content().length() > this.maxChars;
+    }
+
+    /**
+     * Starts the budget of the given file.
+     *
+     * @throws FileBudgetExceededException If the file exceeds the size limit.
+     */
+    public Deadline start(final ProjectFile file) {
+        if (exceedsSize(file)) {
+            throw new FileBudgetExceededException(
+                "The file has " + file.content().length() + " characters, exceeding the budget of "
+                    + this.maxChars + " characters.");
+        }
+        if (this.timeoutMillis == 0) {
+            return Deadline.NONE;
+        }
+        return new Deadline(this.timeoutMillis);
+    }
+
+    @Override
+    public String toString() {
+        return "FileBudget{timeoutMillis=" + this.timeoutMillis + ", maxChars=" + this.maxChars + "}";
+    }
+
+    /**
+     * The time limit of a single file. Deadlines are not thread safe, each is only checked by the
+     * thread compiling its file. The shared {@link #NONE} deadline never expires and keeps no
+     * state, so it is safe to use from any thread.
+     */
+    public static final class Deadline {
+
+        public static final Deadline NONE = new Deadline(0);
+        /**
+         * Number of {@link #tick()} calls between two clock reads.
+         */
+        private static final int TICKS_PER_CHECK = 1024;
+        private static final ExecutorService WORKERS = Executors.newCachedThreadPool(runnable -> {
+            final Thread worker = new Thread(runnable, "clarpse-file-budget");
+            worker.setDaemon(true);
+            return worker;
+        });
+        private final long timeoutMillis;
+        private final long startNanos;
+        private int ticks;
+
+        private Deadline(final long timeoutMillis) {
+            this.timeoutMillis = timeoutMillis;
+            this.startNanos = System.nanoTime();
+        }
+
+        /**
+         * @throws FileBudgetExceededException If the deadline passed.
+         */
+        public void check() {
+            if (this.timeoutMillis > 0 && remainingNanos() < 0) {
+                throw exceeded();
+            }
+        }
+
+        /**
+         * Runs the given work of the file and returns its result. Without a time limit the work
+         * runs on the calling thread, otherwise it runs on a worker thread that is abandoned
+         * once the deadline passed. Any state the abandoned work still uses, such as the parser
+         * it was given, must not be used again.
+         *
+         * @throws FileBudgetExceededException If the deadline passed before the work was done.
+         */
+        public <T> T run(final Supplier<T> work) {
+            if (this.timeoutMillis == 0) {
+                return work.get();
+            }
+            check();
+            final Future<T> result = WORKERS.submit(work::get);
+            try {
+                return result.get(remainingNanos(), TimeUnit.NANOSECONDS);
+            } catch (final TimeoutException e) {
+                result.cancel(true);
+                throw exceeded();
+            } catch (final InterruptedException e) {
+                result.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the work of a file.", e);
+            } catch (final ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                } else if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        private long remainingNanos() {
+            return this.timeoutMillis * NANOS_PER_MILLI - (System.nanoTime() - this.startNanos);
+        }
+
+        private FileBudgetExceededException exceeded() {
+            return new FileBudgetExceededException(
+                "Compiling the file took longer than the budget of " + this.timeoutMillis + " ms.");
+        }
+
+        /**
+         * Cheaper variant of {@link #check()} for hot loops, such as reading tokens, which
+         * only reads the clock every so many calls.
+         */
+        public void tick() {
+            if (this.timeoutMillis > 0 && ++this.ticks >= TICKS_PER_CHECK) {
+                this.ticks = 0;
+                check();
+            }
+        }
+    }
+}
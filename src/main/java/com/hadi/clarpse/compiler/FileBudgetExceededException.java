@@ -0,0 +1,13 @@
+package com.hadi.clarpse.compiler;
+
+/**
+ * Aborts the compilation of a file that exceeded its {@link FileBudget}.
+ */
+public class FileBudgetExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public FileBudgetExceededException(String errorMessage) {
+        super(errorMessage);
+    }
+}
@@ -0,0 +1,287 @@
+package com.hadi.clarpse.compiler;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseStart;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.StringProvider;
+import com.github.javaparser.ast.CompilationUnit;
+
+import java.io.File;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Indexes the Java files of a project by their path relative to the project root and by the
+ * fully qualified names of the top level types they declare, and caches the compilation units
+ * parsed from them for type resolution. A single index is shared by the type solvers and tree
+ * listeners of all parser threads, so each project file is parsed for type resolution at most
+ * once per compile. Caching stops once the {@link AstMemoryBudget} of the index is used up,
+ * files that were not cached are simply parsed again when needed.
+ */
+public final class JavaProjectIndex {
+
+    static final String SEPARATOR = "/";
+    private static final String JAVA_EXTENSION = ".java";
+    private static final ParserConfiguration PARSER_CONFIG = new ParserConfiguration().setLanguageLevel(
+        ParserConfiguration.LanguageLevel.BLEEDING_EDGE);
+
+    private final Map<String, ProjectFile> filesByPath = new HashMap<>();
+    private final Map<String, List<ProjectFile>> filesByDir = new HashMap<>();
+    private final Set<String> declaredTypes = new HashSet<>();
+    private final Map<String, CompletableFuture<Optional<CompilationUnit>>> compilationUnits =
+        new ConcurrentHashMap<>();
+    private final AstMemoryBudget.Account account;
+
+    /**
+     * @param javaFiles    Java files of the project.
+     * @param projectRoot  Local dir the files were read from, or an empty string if the file
+     *                     paths are already relative to the project root.
+     * @param budget       Budget the estimated size of cached compilation units is reserved from.
+     */
+    JavaProjectIndex(final Collection<ProjectFile> javaFiles, final String projectRoot,
+                     final AstMemoryBudget budget) {
+        this.account = budget.openAccount(this);
+        final String root = projectRoot.isEmpty() ? "" : normalize(new File(projectRoot).getAbsolutePath());
+        for (final ProjectFile file : javaFiles) {
+            final String path = relativePath(file.path(), root);
+            if (path.endsWith(JAVA_EXTENSION)) {
+                this.filesByPath.put(path, file);
+                this.declaredTypes.addAll(declaredTypes(file.content()));
+                this.filesByDir.computeIfAbsent(parentDir(path), dir -> new ArrayList<>()).add(file);
+                // Mark the enclosing dirs as existing, even when they hold no Java files.
+                String dir = parentDir(parentDir(path));
+                while (!dir.isEmpty() && !this.filesByDir.containsKey(dir)) {
+                    this.filesByDir.put(dir, new ArrayList<>());
+                    dir = parentDir(dir);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the file with the given project root relative path, or null if there is none.
+     */
+    ProjectFile file(final String path) {
+        return this.filesByPath.get(path);
+    }
+
+    /**
+     * Returns whether a project file declares a top level type with the given fully qualified
+     * name.
+     */
+    public boolean declaresType(final String qualifiedName) {
+        return this.declaredTypes.contains(qualifiedName);
+    }
+
+    /**
+     * Returns a digest of the paths and contents of all indexed project files. References of a
+     * Java file are resolved against the types, members and supertypes declared by any other
+     * project file, so the digest is part of the parse cache key of every Java file.
+     */
+    String sourcesDigest() {
+        final List<String> sortedPaths = new ArrayList<>(this.filesByPath.keySet());
+        Collections.sort(sortedPaths);
+        final StringBuilder digests = new StringBuilder();
+        for (final String path : sortedPaths) {
+            digests.append(path).append('\0').append(ParseCache.digest(this.filesByPath.get(path).content()))
+                   .append('\n');
+        }
+        return ParseCache.digest(digests.toString());
+    }
+
+    /**
+     * Returns whether Java files lie directly within the project root. Project type resolution
+     * only resolves unqualified type names against those files.
+     */
+    public boolean hasRootFiles() {
+        final List<ProjectFile> rootFiles = this.filesByDir.get("");
+        return rootFiles != null && !rootFiles.isEmpty();
+    }
+
+    /**
+     * Returns the files directly within the given project root relative dir, or null if the dir
+     * does not exist.
+     */
+    List<ProjectFile> dirFiles(final String dir) {
+        final List<ProjectFile> files = this.filesByDir.get(dir);
+        return files == null ? null : Collections.unmodifiableList(files);
+    }
+
+    /**
+     * Returns the compilation unit of the given file, parsing the file only if it was not
+     * cached yet. The returned compilation unit is shared and must not be modified. Files are
+     * parsed outside of the map, threads asking for a file another thread is parsing wait for
+     * its compilation unit instead of parsing the file as well.
+     */
+    Optional<CompilationUnit> compilationUnit(final ProjectFile file) {
+        final CompletableFuture<Optional<CompilationUnit>> parsing = new CompletableFuture<>();
+        final CompletableFuture<Optional<CompilationUnit>> cached =
+            this.compilationUnits.putIfAbsent(file.path(), parsing);
+        if (cached != null) {
+            return await(cached);
+        }
+        final long size = file.content().length() * AstMemoryBudget.JAVA_AST_BYTES_PER_CHAR;
+        final boolean retained = this.account.reserve(size);
+        if (!retained) {
+            // Not cached, later lookups parse the file again.
+            this.compilationUnits.remove(file.path(), parsing);
+        }
+        try {
+            final Optional<CompilationUnit> cu = parse(file);
+            parsing.complete(cu);
+            return cu;
+        } catch (final RuntimeException | Error e) {
+            if (retained) {
+                this.compilationUnits.remove(file.path(), parsing);
+                this.account.release(size);
+            }
+            parsing.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    int size() {
+        return this.compilationUnits.size();
+    }
+
+    /**
+     * Drops all cached compilation units and returns their share of the budget.
+     */
+    void clear() {
+        this.compilationUnits.clear();
+        this.account.releaseAll();
+    }
+
+    private static Optional<CompilationUnit> await(final CompletableFuture<Optional<CompilationUnit>> parsing) {
+        try {
+            return parsing.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static Optional<CompilationUnit> parse(final ProjectFile file) {
+        return new JavaParser(PARSER_CONFIG).parse(
+            ParseStart.COMPILATION_UNIT, new StringProvider(file.content())).getResult().map(
+                cu -> cu.setStorage(Paths.get(file.path())));
+    }
+
+    /**
+     * Returns the fully qualified names of the top level types declared in the given source
+     * code, based on a lexical scan of its package declaration and top level type declarations.
+     */
+    static List<String> declaredTypes(final String code) {
+        final List<String> types = new ArrayList<>();
+        String pkg = "";
+        int depth = 0;
+        char prevSignificant = 0;
+        String pendingKeyword = null;
+        int i = 0;
+        final int length = code.length();
+        while (i < length) {
+            final char c = code.charAt(i);
+            if (c == '/' && i + 1 < length && code.charAt(i + 1) == '/') {
+                i = skipUntil(code, i + 2, "\n");
+            } else if (c == '/' && i + 1 < length && code.charAt(i + 1) == '*') {
+                i = skipUntil(code, i + 2, "*/");
+            } else if (c == '"' && code.startsWith("\"\"\"", i)) {
+                i = skipUntil(code, i + 3, "\"\"\"");
+                prevSignificant = '"';
+            } else if (c == '"' || c == '\'') {
+                i = skipLiteral(code, i + 1, c);
+                prevSignificant = c;
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int end = i + 1;
+                while (end < length && Character.isJavaIdentifierPart(code.charAt(end))) {
+                    end++;
+                }
+                final String word = code.substring(i, end);
+                if (depth == 0) {
+                    if (pendingKeyword != null) {
+                        types.add(pkg.isEmpty() ? word : pkg + "." + word);
+                        pendingKeyword = null;
+                    } else if ("package".equals(word) && types.isEmpty()) {
+                        final int semicolon = code.indexOf(';', end);
+                        if (semicolon > 0) {
+                            pkg = code.substring(end, semicolon).replaceAll("\\s+|/\\*.*?\\*/", "");
+                            end = semicolon + 1;
+                        }
+                    } else if (prevSignificant != '.' && ("class".equals(word) || "interface".equals(word)
+                        || "enum".equals(word) || "record".equals(word))) {
+                        pendingKeyword = word;
+                    }
+                }
+                prevSignificant = 'a';
+                i = end;
+            } else {
+                if (c == '{') {
+                    depth++;
+                    pendingKeyword = null;
+                } else if (c == '}') {
+                    depth = Math.max(0, depth - 1);
+                } else if (!Character.isWhitespace(c)) {
+                    pendingKeyword = null;
+                    prevSignificant = c;
+                }
+                i++;
+            }
+        }
+        return types;
+    }
+
+    private static int skipUntil(final String code, final int from, final String terminator) {
+        final int end = code.indexOf(terminator, from);
+        return end < 0 ? code.length() : end + terminator.length();
+    }
+
+    private static int skipLiteral(final String code, final int from, final char quote) {
+        int i = from;
+        while (i < code.length()) {
+            final char c = code.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == quote || c == '\n') {
+                return i + 1;
+            } else {
+                i++;
+            }
+        }
+        return i;
+    }
+
+    static String parentDir(final String path) {
+        final int lastSeparator = path.lastIndexOf(SEPARATOR);
+        return lastSeparator <= 0 ? "" : path.substring(0, lastSeparator);
+    }
+
+    private static String relativePath(final String path, final String root) {
+        String relativePath = normalize(path);
+        if (!root.isEmpty()) {
+            final String absolutePath = normalize(new File(path).getAbsolutePath());
+            if (absolutePath.startsWith(root + SEPARATOR)) {
+                relativePath = absolutePath.substring(root.length());
+            }
+        }
+        return relativePath.startsWith(SEPARATOR) ? relativePath : SEPARATOR + relativePath;
+    }
+
+    private static String normalize(final String path) {
+        return path.replace(File.separatorChar, '/').replaceAll("/{2,}", SEPARATOR);
+    }
+}
@@ -0,0 +1,53 @@
+package com.hadi.clarpse.compiler;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Loads the content of a local file on demand. Only the path, size and modification time of the
+ * file are recorded up front, larger files are memory-mapped when loaded instead of being copied
+ * through an intermediate heap buffer.
+ */
+final class LocalFileContent implements ProjectFile.ContentLoader {
+
+    private static final Logger LOGGER = LogManager.getLogger(LocalFileContent.class);
+    /**
+     * Files smaller than this are read directly, mapping them costs more than it saves.
+     */
+    private static final long MIN_MAPPED_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final long size;
+    private final long lastModified;
+
+    LocalFileContent(final Path path) throws IOException {
+        final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        this.path = path;
+        this.size = attributes.size();
+        this.lastModified = attributes.lastModifiedTime().toMillis();
+    }
+
+    @Override
+    public String load() throws IOException {
+        final BasicFileAttributes attributes = Files.readAttributes(this.path, BasicFileAttributes.class);
+        if (attributes.size() != this.size || attributes.lastModifiedTime().toMillis() != this.lastModified) {
+            LOGGER.warn("File " + this.path + " changed since it was indexed, loading its current content.");
+        }
+        if (attributes.size() < MIN_MAPPED_SIZE) {
+            return new String(Files.readAllBytes(this.path), StandardCharsets.UTF_8);
+        }
+        try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return StandardCharsets.UTF_8.decode(buffer).toString();
+        }
+    }
+}
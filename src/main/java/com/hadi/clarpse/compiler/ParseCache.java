@@ -0,0 +1,313 @@
+package com.hadi.clarpse.compiler;
+
+import com.hadi.clarpse.sourcemodel.Component;
+import com.hadi.clarpse.sourcemodel.OOPSourceCodeModel;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Optional on-disk cache of per-file parse results, keyed by a hash of the Clarpse version,
+ * language, file path, file content and any project context the parse of the file depends on.
+ * Entries are evicted in least recently used order once the cache grows beyond its size limit.
+ * <p>
+ * Since the version is part of every key, the cache {@link #fromEnvironment() configured by the
+ * environment} is disabled for snapshot builds and builds of unknown version, whose parse
+ * results may change without the version changing.
+ */
+public final class ParseCache {
+
+    /**
+     * Environment variable holding the cache directory, caching is disabled when unset.
+     */
+    public static final String DIR_ENV = "CLARPSE_PARSE_CACHE_DIR";
+    /**
+     * Environment variable controlling the max size of the cache directory in megabytes.
+     */
+    public static final String SIZE_ENV = "CLARPSE_PARSE_CACHE_MB";
+    private static final Logger LOGGER = LogManager.getLogger(ParseCache.class);
+    private static final long DEFAULT_SIZE_MB = 512;
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+    private static final String ENTRY_EXTENSION = ".bin";
+    private static final ParseCache DISABLED = new ParseCache(null, 0);
+    private static final String VERSION = clarpseVersion();
+    private static final ObjectInputFilter FILTER = ObjectInputFilter.Config.createFilter(
+        "com.hadi.clarpse.**;java.lang.*;java.util.*;!*");
+
+    private final Path dir;
+    private final long maxSizeBytes;
+
+    /**
+     * @param dir          Cache directory, or null to disable caching.
+     * @param maxSizeBytes Max size of the cache directory.
+     */
+    public ParseCache(final Path dir, final long maxSizeBytes) {
+        this.dir = dir;
+        this.maxSizeBytes = maxSizeBytes;
+    }
+
+    /**
+     * Returns the cache configured through {@code CLARPSE_PARSE_CACHE_DIR} and
+     * {@code CLARPSE_PARSE_CACHE_MB}, or a disabled cache if no directory is configured or this
+     * is not a release build of Clarpse.
+     */
+    public static ParseCache fromEnvironment() {
+        final String cacheDir = System.getenv(DIR_ENV);
+        if (cacheDir == null || cacheDir.isBlank()) {
+            return DISABLED;
+        }
+        if (!releaseVersion(VERSION)) {
+            LOGGER.warn("Parse cache is disabled for Clarpse version " + VERSION + ", which is not a release.");
+            return DISABLED;
+        }
+        long sizeMb = DEFAULT_SIZE_MB;
+        final String size = System.getenv(SIZE_ENV);
+        if (size != null) {
+            try {
+                sizeMb = Long.parseLong(size.trim());
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return new ParseCache(Paths.get(cacheDir.trim()), sizeMb * BYTES_PER_MB);
+    }
+
+    public boolean enabled() {
+        return this.dir != null;
+    }
+
+    /**
+     * Returns a short digest of the given text, used to fold large parse contexts into cache
+     * keys.
+     */
+    public static String digest(final String text) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Generates the cache key of the given file.
+     *
+     * @param context Digest of any project state, besides the file itself, the parse of the file
+     *                depends on.
+     */
+    public String key(final Lang lang, final ProjectFile file, final String context) {
+        return digest(VERSION + '\0' + lang.name() + '\0' + file.path() + '\0' + context + '\0'
+                          + file.content());
+    }
+
+    /**
+     * Returns the cached fragment with the given key, marking it as recently used.
+     */
+    public Optional<Fragment> get(final String key) {
+        if (!enabled()) {
+            return Optional.empty();
+        }
+        final Path entry = entryPath(key);
+        try (InputStream is = Files.newInputStream(entry);
+             ObjectInputStream ois = new ObjectInputStream(is)) {
+            ois.setObjectInputFilter(FILTER);
+            final Fragment fragment = (Fragment) ois.readObject();
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            return Optional.of(fragment);
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            LOGGER.warn("Discarding unreadable parse cache entry " + entry + ".", e);
+            deleteQuietly(entry);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores the given fragment under the given key. The fragment is serialized immediately, so
+     * later modifications of it are not reflected in the cache.
+     */
+    public void put(final String key, final Fragment fragment) {
+        if (!enabled()) {
+            return;
+        }
+        final Path entry = entryPath(key);
+        Path tmpEntry = null;
+        try {
+            Files.createDirectories(entry.getParent());
+            tmpEntry = Files.createTempFile(entry.getParent(), key, ".tmp");
+            try (OutputStream os = Files.newOutputStream(tmpEntry);
+                 ObjectOutputStream oos = new ObjectOutputStream(os)) {
+                oos.writeObject(fragment);
+            }
+            Files.move(tmpEntry, entry, StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Could not write parse cache entry " + entry + ".", e);
+            if (tmpEntry != null) {
+                deleteQuietly(tmpEntry);
+            }
+        }
+    }
+
+    /**
+     * Deletes the least recently used entries until the cache fits within its size limit.
+     */
+    public void evict() {
+        if (!enabled() || !Files.isDirectory(this.dir)) {
+            return;
+        }
+        final List<Path> entries;
+        try (Stream<Path> files = Files.walk(this.dir)) {
+            entries = files.filter(path -> path.toString().endsWith(ENTRY_EXTENSION))
+                           .collect(Collectors.toList());
+        } catch (IOException e) {
+            LOGGER.warn("Could not list parse cache entries in " + this.dir + ".", e);
+            return;
+        }
+        final List<CacheEntry> cacheEntries = new ArrayList<>();
+        long totalSize = 0;
+        for (final Path entry : entries) {
+            try {
+                final CacheEntry cacheEntry = new CacheEntry(entry, Files.size(entry),
+                                                             Files.getLastModifiedTime(entry));
+                cacheEntries.add(cacheEntry);
+                totalSize += cacheEntry.size;
+            } catch (IOException ignored) {
+                // Entry was removed concurrently.
+            }
+        }
+        if (totalSize <= this.maxSizeBytes) {
+            return;
+        }
+        cacheEntries.sort(Comparator.comparing(cacheEntry -> cacheEntry.lastUsed));
+        int evicted = 0;
+        for (final CacheEntry cacheEntry : cacheEntries) {
+            if (totalSize <= this.maxSizeBytes) {
+                break;
+            }
+            deleteQuietly(cacheEntry.path);
+            totalSize -= cacheEntry.size;
+            evicted++;
+        }
+        LOGGER.info("Evicted " + evicted + " parse cache entries from " + this.dir + ".");
+    }
+
+    private Path entryPath(final String key) {
+        return this.dir.resolve(key.substring(0, 2)).resolve(key + ENTRY_EXTENSION);
+    }
+
+    private static void deleteQuietly(final Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Returns whether the given Clarpse version identifies a single build, so that parse
+     * results cached by it can be reused.
+     */
+    public static boolean releaseVersion(final String version) {
+        return !version.isBlank() && !"unknown".equals(version) && !version.endsWith("-SNAPSHOT")
+            && !version.startsWith("${");
+    }
+
+    private static String clarpseVersion() {
+        final Properties properties = new Properties();
+        try (InputStream is = ParseCache.class.getResourceAsStream("/clarpse.properties")) {
+            if (is != null) {
+                properties.load(is);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not read Clarpse version.", e);
+        }
+        return properties.getProperty("version", "unknown");
+    }
+
+    /**
+     * The parse result of a single file.
+     */
+    public static final class Fragment implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final OOPSourceCodeModel model;
+        private final boolean failed;
+        private final String failureReason;
+        private final ArrayList<Map.Entry<String, Component>> pendingChildren;
+
+        public Fragment(final OOPSourceCodeModel model, final boolean failed) {
+            this(model, failed, null, new ArrayList<>());
+        }
+
+        public Fragment(final OOPSourceCodeModel model, final boolean failed,
+                        final List<Map.Entry<String, Component>> pendingChildren) {
+            this(model, failed, null, pendingChildren);
+        }
+
+        /**
+         * @param failureReason   Why the file failed, or null if it did not fail or has syntax
+         *                        errors.
+         * @param pendingChildren Components of the file that still need to be bound to a parent
+         *                        component declared in another file, keyed by parent name.
+         */
+        public Fragment(final OOPSourceCodeModel model, final boolean failed, final String failureReason,
+                        final List<Map.Entry<String, Component>> pendingChildren) {
+            this.model = model;
+            this.failed = failed;
+            this.failureReason = failureReason;
+            this.pendingChildren = new ArrayList<>(pendingChildren);
+        }
+
+        public OOPSourceCodeModel model() {
+            return this.model;
+        }
+
+        public boolean failed() {
+            return this.failed;
+        }
+
+        public Optional<String> failureReason() {
+            return Optional.ofNullable(this.failureReason);
+        }
+
+        public List<Map.Entry<String, Component>> pendingChildren() {
+            return this.pendingChildren;
+        }
+    }
+
+    private static final class CacheEntry {
+        private final Path path;
+        private final long size;
+        private final FileTime lastUsed;
+
+        private CacheEntry(final Path path, final long size, final FileTime lastUsed) {
+            this.path = path;
+            this.size = size;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
@@ -7,16 +7,21 @@ import org.apache.logging.log4j.Logger;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.ref.SoftReference;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Scanner;
+import java.util.function.UnaryOperator;
 
 public class ProjectFile {
 
     private static final Logger LOGGER = LogManager.getLogger(ProjectFile.class);
     private String content;
     private String path;
+    private ContentLoader loader;
+    private SoftReference<String> loadedContent = new SoftReference<>(null);
 
     public ProjectFile(final String path, final String fileContent) {
         content = fileContent;
@@ -28,12 +33,24 @@ public class ProjectFile {
         LOGGER.debug("Created new file with path " + this.path + ".");
     }
 
+    /**
+     * Creates a file whose content is loaded on demand by the given loader. Loaded content is
+     * only softly retained, so it may be released after the file was parsed and loaded again
+     * when needed.
+     */
+    ProjectFile(final String path, final ContentLoader loader) {
+        this(path, (String) null);
+        this.loader = loader;
+    }
+
     public void path(final String path) {
         this.path = path;
     }
 
     public void content(final String content) {
         this.content = content;
+        this.loader = null;
+        this.loadedContent = new SoftReference<>(null);
     }
 
     public ProjectFile(final java.io.File file) throws IOException {
@@ -70,21 +87,37 @@ public class ProjectFile {
         return name;
     }
     public final String content() {
-        return content;
+        if (this.loader == null) {
+            return content;
+        }
+        String loaded = this.loadedContent.get();
+        if (loaded == null) {
+            try {
+                loaded = this.loader.load();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not load content of file " + this.path + ".", e);
+            }
+            this.loadedContent = new SoftReference<>(loaded);
+        }
+        return loaded;
     }
 
     public final InputStream stream() {
         return new ByteArrayInputStream(content().getBytes(StandardCharsets.UTF_8));
     }
 
+    /**
+     * Files are equal when they have the same path and content. Two lazily loaded files are
+     * equal by their path alone, so that hashing or comparing them does not load their content.
+     */
     @Override
     public final boolean equals(final Object obj) {
         if (obj == null || (getClass() != obj.getClass())) {
             return false;
         }
         final ProjectFile file = (ProjectFile) obj;
-        return content().equals(file.content())
-            && path().equals(file.path());
+        return path().equals(file.path())
+            && ((this.loader != null && file.loader != null) || content().equals(file.content()));
     }
 
     public String path() {
@@ -93,13 +126,36 @@ public class ProjectFile {
 
     @Override
     public int hashCode() {
-        return content().hashCode() + path().hashCode();
+        return path().hashCode();
     }
 
     public ProjectFile copy() {
         return new ProjectFile(path(), content());
     }
 
+    /**
+     * Returns a file with the given path and the content of this file. The content of lazily
+     * loaded files is not loaded.
+     */
+    public ProjectFile withPath(final String newPath) {
+        if (this.loader == null) {
+            return new ProjectFile(newPath, content());
+        }
+        return new ProjectFile(newPath, this.loader);
+    }
+
+    /**
+     * Returns a file with the given path and the content of this file transformed by the given
+     * function. The content of lazily loaded files is only transformed once it is loaded.
+     */
+    public ProjectFile withPath(final String newPath, final UnaryOperator<String> transform) {
+        if (this.loader == null) {
+            return new ProjectFile(newPath, transform.apply(content()));
+        }
+        final ContentLoader original = this.loader;
+        return new ProjectFile(newPath, () -> transform.apply(original.load()));
+    }
+
     @Override
     public String toString() {
         return this.path;
@@ -108,4 +164,12 @@ public class ProjectFile {
     public String extension() {
         return FilenameUtils.getExtension(this.path);
     }
+
+    /**
+     * Loads the content of a lazily loaded file.
+     */
+    @FunctionalInterface
+    interface ContentLoader {
+        String load() throws IOException;
+    }
 }
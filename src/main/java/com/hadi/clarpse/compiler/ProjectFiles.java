@@ -8,59 +8,148 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintWriter;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
 /**
  * Represents source files to be parsed.
+ * <p>
+ * Files read from a zip archive or local directory are held in memory by default. When created
+ * in streaming mode, only the entries of the archive or the files of the directory are indexed
+ * and the content of each file is loaded on demand, so peak memory does not grow with the size
+ * of the project. Streaming instances should be closed once they are no longer needed to
+ * release the archive they were read from.
  */
-public class ProjectFiles {
+public class ProjectFiles implements Closeable {
 
     private static final Logger LOGGER = LogManager.getLogger(ProjectFiles.class);
     private final Map<Lang, List<ProjectFile>> langToFilesMap = new HashMap<>();
     private int size = 0;
     private String projectDir;
     private boolean tempProjectDir = false;
+    private ZipFile zipFile;
+    private ProjectPathFilter pathFilter = ProjectPathFilter.ALL;
+    private Consumer<ProjectFile> ingestionListener = file -> { };
 
     /**
      * Constructs a ProjectFiles instance from a path to a local directory or zip file.
      */
     public ProjectFiles(final String projectPath) throws Exception {
+        this(projectPath, false);
+    }
+
+    /**
+     * Constructs a ProjectFiles instance from a path to a local directory or zip file.
+     *
+     * @param streaming whether the content of files is loaded on demand instead of up front.
+     */
+    public ProjectFiles(final String projectPath, final boolean streaming) throws Exception {
+        this(projectPath, streaming, Collections.emptyList(), Collections.emptyList());
+    }
+
+    /**
+     * Constructs a ProjectFiles instance from a path to a local directory or zip file, only
+     * keeping the files selected by the given globs. Globs are matched against file paths
+     * relative to the directory or zip root, such as {@code src/**} or
+     * {@code **}{@code /vendor/**}. Directories matching an exclude glob are never walked, and the
+     * files of a directory are read in parallel, see {@link CompilerParallelism}.
+     *
+     * @param streaming    whether the content of files is loaded on demand instead of up front.
+     * @param includeGlobs files to keep, all files are kept if empty.
+     * @param excludeGlobs files and directories to skip.
+     */
+    public ProjectFiles(final String projectPath, final boolean streaming,
+                        final Collection<String> includeGlobs, final Collection<String> excludeGlobs)
+        throws Exception {
+        this(projectPath, streaming, includeGlobs, excludeGlobs, file -> { });
+    }
+
+    /**
+     * @param ingestionListener notified of each file as soon as it was read, in insertion order.
+     */
+    ProjectFiles(final String projectPath, final boolean streaming, final Collection<String> includeGlobs,
+                 final Collection<String> excludeGlobs, final Consumer<ProjectFile> ingestionListener)
+        throws Exception {
+        this.pathFilter = new ProjectPathFilter(includeGlobs, excludeGlobs);
+        this.ingestionListener = ingestionListener;
         File projectFiles = new File(projectPath);
         LOGGER.info("Project source files location: " + projectFiles.getPath());
         if (!projectFiles.exists()) {
             throw new IllegalArgumentException("The given path does not exist!");
         } else if (projectFiles.isFile()
                 && anyMatchExtensions(projectFiles.getName(), new String[]{".zip"})) {
-            initFilesFromZipPath(projectFiles);
+            if (streaming) {
+                indexFilesFromZip(new ZipFile(projectFiles));
+            } else {
+                initFilesFromZipPath(projectFiles);
+            }
         } else if (projectFiles.isDirectory()) {
-            initFilesFromDir(projectFiles);
+            initFilesFromDir(projectFiles, streaming);
         } else {
             throw new IllegalArgumentException(
                     "The supplied project path must either be a local directory path or a "
                             + "local zip file path.");
         }
+        this.ingestionListener = file -> { };
     }
 
     public ProjectFiles(InputStream zipFileInputStream) throws Exception {
-        extractProjectFilesFromStream(zipFileInputStream);
+        this(zipFileInputStream, false);
+    }
+
+    /**
+     * Constructs a ProjectFiles instance from an input stream to a zip file.
+     *
+     * @param streaming whether the stream is spooled to a temporary file whose entries are
+     *                  decompressed on demand, instead of extracting all files up front.
+     */
+    public ProjectFiles(InputStream zipFileInputStream, final boolean streaming) throws Exception {
+        this(zipFileInputStream, streaming, file -> { });
+    }
+
+    /**
+     * @param ingestionListener notified of each file as soon as it was read, in insertion order.
+     */
+    ProjectFiles(final InputStream zipFileInputStream, final boolean streaming,
+                 final Consumer<ProjectFile> ingestionListener) throws Exception {
+        this.ingestionListener = ingestionListener;
+        if (streaming) {
+            indexFilesFromZip(spool(zipFileInputStream));
+        } else {
+            extractProjectFilesFromStream(zipFileInputStream);
+        }
+        this.ingestionListener = file -> { };
     }
 
     public ProjectFiles(final Collection<ProjectFile> projectFiles) {
@@ -89,9 +178,9 @@ public class ProjectFiles {
         LOGGER.info("Shifting all source files sub-dirs left..");
         this.langToFilesMap.forEach((lang, files) -> this.langToFilesMap.put(lang, files.stream().map(file -> {
             if (StringUtils.countMatches(file.path(), File.separator) > 1) {
-                return new ProjectFile(file.path().substring(
+                return file.withPath(file.path().substring(
                         StringUtils.ordinalIndexOf(file.path(), File.separator, 2)
-                ), file.content());
+                ));
             } else {
                 throw new IllegalArgumentException("Cannot shift file: " + file.path() + ".");
             }
@@ -102,21 +191,58 @@ public class ProjectFiles {
         return this.size;
     }
 
-    private void initFilesFromDir(File projectFiles) throws IOException {
+    private void initFilesFromDir(File projectFiles, final boolean streaming) throws Exception {
         LOGGER.info("Reading source files from dir: " + projectFiles.getPath());
         this.projectDir = projectFiles.getAbsolutePath();
         this.tempProjectDir = false;
-        Iterator<File> it = FileUtils.iterateFiles(projectFiles, null, true);
-        while (it.hasNext()) {
-            File nextFile = it.next();
-            if (nextFile.isFile() && Lang.langFromExtn(FilenameUtils.getExtension(nextFile.getName())) != null) {
-                this.insertFile(new ProjectFile(
-                        nextFile.getPath(),
-                        FileUtils.readFileToString(nextFile, StandardCharsets.US_ASCII))
-                );
+        final List<Path> sourceFiles = sourceFilesInDir(projectFiles.toPath());
+        final List<Callable<ProjectFile>> readers = new ArrayList<>(sourceFiles.size());
+        for (final Path sourceFile : sourceFiles) {
+            if (streaming) {
+                readers.add(() -> new ProjectFile(sourceFile.toString(), new LocalFileContent(sourceFile)));
+            } else {
+                readers.add(() -> new ProjectFile(sourceFile.toString(),
+                        new String(Files.readAllBytes(sourceFile), StandardCharsets.UTF_8)));
             }
         }
-        LOGGER.info("Read " + this.langToFilesMap.size() + " files.");
+        CompilerParallelism.invokeAll(readers, CompilerParallelism.resolve(readers.size()), this::insertFile);
+        LOGGER.info("Read " + this.size + " files.");
+    }
+
+    /**
+     * Walks the given dir and returns its source files selected by the path filter, in walk
+     * order. Excluded dirs are not walked.
+     */
+    private List<Path> sourceFilesInDir(final Path dir) throws IOException {
+        final List<Path> sourceFiles = new ArrayList<>();
+        Files.walkFileTree(dir, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE,
+                           new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(final Path subDir, final BasicFileAttributes attrs) {
+                if (pathFilter.skipsDir(dir.relativize(subDir).toString())) {
+                    LOGGER.debug("Skipping dir: " + subDir + ".");
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+                if (attrs.isRegularFile()
+                        && Lang.langFromExtn(FilenameUtils.getExtension(file.getFileName().toString())) != null
+                        && pathFilter.accepts(dir.relativize(file).toString())) {
+                    sourceFiles.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(final Path file, final IOException e) {
+                LOGGER.warn("Could not read " + file + ", skipping it.", e);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return sourceFiles;
     }
 
     private void extractProjectFilesFromStream(final InputStream is)
@@ -127,7 +253,8 @@ public class ProjectFiles {
             ZipEntry entry = zis.getNextEntry();
             while (entry != null) {
                 if (!entry.isDirectory() && (Lang.langFromExtn(
-                        FilenameUtils.getExtension(entry.getName())) != null)) {
+                        FilenameUtils.getExtension(entry.getName())) != null)
+                        && this.pathFilter.accepts(entry.getName())) {
                     ProjectFile newFile = new ProjectFile(
                             File.separator + entry.getName().replace(" ", "_"),
                             new String(IOUtils.toByteArray(zis), StandardCharsets.UTF_8));
@@ -144,6 +271,55 @@ public class ProjectFiles {
         LOGGER.info("Extracted " + filesCounter + " files.");
     }
 
+    /**
+     * Copies the given zip stream to a temporary file, which is deleted once the returned zip
+     * file is closed.
+     */
+    private static ZipFile spool(final InputStream is) throws Exception {
+        final Path spoolFile = Files.createTempFile("clarpse", ".zip");
+        try {
+            Files.copy(is, spoolFile, StandardCopyOption.REPLACE_EXISTING);
+            LOGGER.info("Spooled zip input stream to " + spoolFile + ".");
+            return new ZipFile(spoolFile.toFile(), ZipFile.OPEN_READ | ZipFile.OPEN_DELETE);
+        } catch (final Exception e) {
+            Files.deleteIfExists(spoolFile);
+            throw new Exception("Error while spooling zip input stream!", e);
+        }
+    }
+
+    private void indexFilesFromZip(final ZipFile zip) {
+        LOGGER.info("Indexing source files of zip file " + zip.getName() + "..");
+        this.zipFile = zip;
+        int filesCounter = 0;
+        final Enumeration<? extends ZipEntry> entries = zip.entries();
+        while (entries.hasMoreElements()) {
+            final ZipEntry entry = entries.nextElement();
+            if (!entry.isDirectory() && (Lang.langFromExtn(
+                    FilenameUtils.getExtension(entry.getName())) != null)
+                    && this.pathFilter.accepts(entry.getName())) {
+                this.insertFile(new ProjectFile(File.separator + entry.getName().replace(" ", "_"), () -> {
+                    try (InputStream entryStream = zip.getInputStream(entry)) {
+                        return new String(IOUtils.toByteArray(entryStream), StandardCharsets.UTF_8);
+                    }
+                }));
+                filesCounter += 1;
+            }
+        }
+        LOGGER.info("Indexed " + filesCounter + " files.");
+    }
+
+    /**
+     * Releases the zip file backing streaming instances, after which the content of their files
+     * can no longer be loaded.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.zipFile != null) {
+            this.zipFile.close();
+            this.zipFile = null;
+        }
+    }
+
     private boolean anyMatchExtensions(String s, String[] extn) {
         return Arrays.stream(extn).anyMatch(s::endsWith);
     }
@@ -158,6 +334,7 @@ public class ProjectFiles {
     }
 
     private void insertFile(final ProjectFile file, Lang lang) {
+        discardTempProjectDir();
         if (this.langToFilesMap.containsKey(lang)) {
             this.langToFilesMap.get(lang).add(file);
         } else {
@@ -166,6 +343,73 @@ public class ProjectFiles {
         }
         this.size += 1;
         LOGGER.debug("Inserted file " + file + ".");
+        this.ingestionListener.accept(file);
+    }
+
+    /**
+     * Replaces the file with the same path as the given file, keeping its position, or inserts
+     * the given file if no such file exists.
+     */
+    public void replaceFile(final ProjectFile file) {
+        final Lang fileLang = Lang.langFromExtn(file.extension());
+        final List<ProjectFile> files = fileLang == null ? null : this.langToFilesMap.get(fileLang);
+        if (files != null) {
+            for (int i = 0; i < files.size(); i++) {
+                if (files.get(i).path().equals(file.path())) {
+                    files.set(i, file);
+                    discardTempProjectDir();
+                    LOGGER.debug("Replaced file " + file + ".");
+                    return;
+                }
+            }
+        }
+        insertFile(file);
+    }
+
+    /**
+     * Returns a copy of these project files which shares the underlying {@link ProjectFile}
+     * instances and keeps their order.
+     */
+    public ProjectFiles copy() {
+        final ProjectFiles copy = new ProjectFiles();
+        this.langToFilesMap.forEach((lang, files) -> files.forEach(file -> copy.insertFile(file, lang)));
+        return copy;
+    }
+
+    /**
+     * Removes the file with the given path.
+     *
+     * @return whether a file with the given path was removed.
+     */
+    public boolean removeFile(final String path) {
+        boolean removed = false;
+        for (final List<ProjectFile> files : this.langToFilesMap.values()) {
+            final Iterator<ProjectFile> it = files.iterator();
+            while (it.hasNext()) {
+                if (it.next().path().equals(path)) {
+                    it.remove();
+                    this.size -= 1;
+                    removed = true;
+                }
+            }
+        }
+        if (removed) {
+            discardTempProjectDir();
+            LOGGER.debug("Removed file " + path + ".");
+        }
+        return removed;
+    }
+
+    /**
+     * Files persisted to a temporary project dir no longer reflect the current files once they
+     * are modified, the dir is persisted again the next time it is requested.
+     */
+    private void discardTempProjectDir() {
+        if (this.tempProjectDir) {
+            FileUtils.deleteQuietly(new File(this.projectDir));
+            this.projectDir = null;
+            this.tempProjectDir = false;
+        }
     }
 
     public final Collection<ProjectFile> files(Lang language) {
@@ -187,6 +431,17 @@ public class ProjectFiles {
         }
     }
 
+    /**
+     * Returns the local directory these files were read from, without persisting the files if
+     * they were not read from one.
+     */
+    public Optional<String> localDir() {
+        if (this.tempProjectDir || this.projectDir == null || this.projectDir.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(this.projectDir);
+    }
+
     public boolean isTempProjectDir() {
         return this.tempProjectDir;
     }
@@ -0,0 +1,126 @@
+package com.hadi.clarpse.compiler;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.resolution.Navigator;
+import com.github.javaparser.resolution.TypeSolver;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.resolution.model.SymbolReference;
+import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFacade;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Resolves types declared in the Java files of a project directly from their in-memory
+ * contents, so the files do not have to be persisted to disk for type resolution.
+ * <p>
+ * Types are looked up the same way {@link
+ * com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver} looks them up
+ * relative to its source dir: the file named after the type and its package is searched first,
+ * followed by all files in that file's directory. Instances are not thread safe, but solvers
+ * of different threads may share the same {@link JavaProjectIndex}.
+ */
+public class ProjectFilesTypeSolver implements TypeSolver {
+
+    private static final String JAVA_EXTENSION = ".java";
+
+    private final JavaProjectIndex index;
+    private final Map<String, SymbolReference<ResolvedReferenceTypeDeclaration>> foundTypes =
+        new HashMap<>();
+    private TypeSolver parent;
+
+    /**
+     * @param javaFiles Java files of the project, whose paths are relative to the project root.
+     */
+    public ProjectFilesTypeSolver(final Collection<ProjectFile> javaFiles) {
+        this(new JavaProjectIndex(javaFiles, "", AstMemoryBudget.UNLIMITED));
+    }
+
+    ProjectFilesTypeSolver(final JavaProjectIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    public TypeSolver getParent() {
+        return this.parent;
+    }
+
+    @Override
+    public void setParent(final TypeSolver parent) {
+        if (this.parent != null) {
+            throw new IllegalStateException("This TypeSolver already has a parent.");
+        }
+        if (parent == this) {
+            throw new IllegalStateException("The parent of this TypeSolver cannot be itself.");
+        }
+        this.parent = parent;
+    }
+
+    @Override
+    public SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveType(final String name) {
+        SymbolReference<ResolvedReferenceTypeDeclaration> type = this.foundTypes.get(name);
+        if (type == null) {
+            type = tryToSolveTypeUncached(name);
+            this.foundTypes.put(name, type);
+        }
+        return type;
+    }
+
+    /**
+     * Module declarations are not indexed, types are only resolved by their qualified name.
+     */
+    @Override
+    public SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveTypeInModule(
+        final String qualifiedModuleName, final String simpleTypeName) {
+        return SymbolReference.unsolved();
+    }
+
+    private SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveTypeUncached(final String name) {
+        final String[] nameElements = name.split("\\.");
+        for (int i = nameElements.length; i > 0; i--) {
+            final StringBuilder filePath = new StringBuilder();
+            for (int j = 0; j < i; j++) {
+                filePath.append(JavaProjectIndex.SEPARATOR).append(nameElements[j]);
+            }
+            filePath.append(JAVA_EXTENSION);
+            final StringBuilder typeName = new StringBuilder();
+            for (int j = i - 1; j < nameElements.length; j++) {
+                if (j != i - 1) {
+                    typeName.append('.');
+                }
+                typeName.append(nameElements[j]);
+            }
+            final ProjectFile file = this.index.file(filePath.toString());
+            if (file != null) {
+                final Optional<TypeDeclaration<?>> type = findType(file, typeName.toString());
+                if (type.isPresent()) {
+                    return solved(type.get());
+                }
+            }
+            final List<ProjectFile> dirFiles = this.index.dirFiles(
+                JavaProjectIndex.parentDir(filePath.toString()));
+            if (dirFiles != null) {
+                for (final ProjectFile dirFile : dirFiles) {
+                    final Optional<TypeDeclaration<?>> type = findType(dirFile, typeName.toString());
+                    if (type.isPresent()) {
+                        return solved(type.get());
+                    }
+                }
+            }
+        }
+        return SymbolReference.unsolved();
+    }
+
+    private SymbolReference<ResolvedReferenceTypeDeclaration> solved(final TypeDeclaration<?> type) {
+        return SymbolReference.solved(JavaParserFacade.get(this).getTypeDeclaration(type));
+    }
+
+    private Optional<TypeDeclaration<?>> findType(final ProjectFile file, final String typeName) {
+        final Optional<CompilationUnit> cu = this.index.compilationUnit(file);
+        return cu.flatMap(compilationUnit -> Navigator.findType(compilationUnit, typeName));
+    }
+}
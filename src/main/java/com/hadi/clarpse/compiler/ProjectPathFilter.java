@@ -0,0 +1,70 @@
+package com.hadi.clarpse.compiler;
+
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Selects project files by include and exclude globs matched against their path relative to the
+ * project root, using '/' as separator, such as {@code src/**} or {@code **}{@code /vendor/**}.
+ * Files are selected when they match any include glob, or when there are none, and match no
+ * exclude glob. Dirs matching an exclude glob, or the part of an exclude glob preceding a
+ * trailing {@code /**}, are skipped entirely. A leading {@code **}{@code /} also matches
+ * the project root, so {@code **}{@code /vendor/**} excludes a top level {@code vendor} dir too.
+ */
+final class ProjectPathFilter {
+
+    static final ProjectPathFilter ALL = new ProjectPathFilter(Collections.emptyList(), Collections.emptyList());
+    private static final String GLOB_SYNTAX = "glob:";
+    private static final String ANY_DESCENDANT = "/**";
+    private static final String ANY_ANCESTOR = "**/";
+
+    private final List<PathMatcher> includes = new ArrayList<>();
+    private final List<PathMatcher> excludes = new ArrayList<>();
+    private final List<PathMatcher> excludedDirs = new ArrayList<>();
+
+    ProjectPathFilter(final Collection<String> includeGlobs, final Collection<String> excludeGlobs) {
+        includeGlobs.forEach(glob -> addMatchers(this.includes, glob));
+        for (final String glob : excludeGlobs) {
+            addMatchers(this.excludes, glob);
+            addMatchers(this.excludedDirs, glob);
+            if (glob.endsWith(ANY_DESCENDANT) && glob.length() > ANY_DESCENDANT.length()) {
+                addMatchers(this.excludedDirs, glob.substring(0, glob.length() - ANY_DESCENDANT.length()));
+            }
+        }
+    }
+
+    /**
+     * Adds a matcher of the given glob, and of the glob without its leading {@code **}{@code /}
+     * if any, since {@code **} never matches an empty path prefix.
+     */
+    private static void addMatchers(final List<PathMatcher> matchers, final String glob) {
+        final FileSystem fileSystem = FileSystems.getDefault();
+        matchers.add(fileSystem.getPathMatcher(GLOB_SYNTAX + glob));
+        if (glob.startsWith(ANY_ANCESTOR) && glob.length() > ANY_ANCESTOR.length()) {
+            matchers.add(fileSystem.getPathMatcher(GLOB_SYNTAX + glob.substring(ANY_ANCESTOR.length())));
+        }
+    }
+
+    /**
+     * @param relativePath File path relative to the project root, without a leading separator.
+     */
+    boolean accepts(final String relativePath) {
+        final Path path = Path.of(relativePath);
+        return (this.includes.isEmpty() || this.includes.stream().anyMatch(matcher -> matcher.matches(path)))
+            && this.excludes.stream().noneMatch(matcher -> matcher.matches(path));
+    }
+
+    /**
+     * @param relativeDir Dir path relative to the project root, without a leading separator.
+     */
+    boolean skipsDir(final String relativeDir) {
+        final Path path = Path.of(relativeDir);
+        return !relativeDir.isEmpty() && this.excludedDirs.stream().anyMatch(matcher -> matcher.matches(path));
+    }
+}
@@ -5,8 +5,15 @@ import com.hadi.antlr.golang.GoParser;
 import com.hadi.antlr.golang.GoParserBaseListener;
 import com.hadi.clarpse.compiler.ClarpseCompiler;
 import com.hadi.clarpse.compiler.CompileException;
+import com.hadi.clarpse.compiler.CompileEvents;
+import com.hadi.clarpse.compiler.CompileListener;
+import com.hadi.clarpse.compiler.CompileMetrics.Phase;
 import com.hadi.clarpse.compiler.CompileResult;
+import com.hadi.clarpse.compiler.CompilerParallelism;
+import com.hadi.clarpse.compiler.FileBudget;
+import com.hadi.clarpse.compiler.FileBudgetExceededException;
 import com.hadi.clarpse.compiler.Lang;
+import com.hadi.clarpse.compiler.ParseCache;
 import com.hadi.clarpse.compiler.PackageComp;
 import com.hadi.clarpse.compiler.ProjectFile;
 import com.hadi.clarpse.compiler.ProjectFiles;
@@ -17,16 +24,28 @@ import com.hadi.clarpse.sourcemodel.Component;
 import com.hadi.clarpse.sourcemodel.OOPSourceCodeModel;
 import com.hadi.clarpse.sourcemodel.OOPSourceModelConstants;
 import com.hadi.clarpse.sourcemodel.Package;
+import com.hadi.clarpse.sourcemodel.SymbolTable;
 import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.BailErrorStrategy;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
 import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
+import org.antlr.v4.runtime.tree.RuleNode;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -34,10 +53,16 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
+import java.util.StringJoiner;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Antlr4 based GoLang compiler.
@@ -45,10 +70,37 @@ import java.util.stream.Collectors;
 public class ClarpseGoCompiler implements ClarpseCompiler {
 
     private static final Logger LOGGER = LogManager.getLogger(ClarpseGoCompiler.class);
+    private final List<CompileListener> listeners = new ArrayList<>();
+    private FileBudget budget = FileBudget.fromEnvironment();
+    private ParseCache parseCache = ParseCache.fromEnvironment();
+
+    @Override
+    public void addListener(final CompileListener listener) {
+        this.listeners.add(listener);
+    }
+
+    @Override
+    public void setFileBudget(final FileBudget budget) {
+        this.budget = budget;
+    }
+
+    @Override
+    public void setParseCache(final ParseCache cache) {
+        this.parseCache = cache;
+    }
 
     private void resolveInterfaces(final OOPSourceCodeModel srcModel) throws CompileException {
+        resolveInterfaces(srcModel, srcModel);
+    }
+
+    /**
+     * Resolves the interfaces implemented by the base components of the given target model
+     * against all interfaces of the given source model.
+     */
+    private void resolveInterfaces(final OOPSourceCodeModel srcModel,
+                                   final OOPSourceCodeModel targetModel) throws CompileException {
         final Set<Component> baseComponents =
-            srcModel.components().filter(s -> (s.componentType().isBaseComponent())).collect(Collectors.toSet());
+            targetModel.components().filter(s -> (s.componentType().isBaseComponent())).collect(Collectors.toSet());
         LOGGER.info("Detected " + baseComponents.size() + " interfaces to resolve.");
         final ImplementedInterfaces implementedInterfacesGatherer =
             new ImplementedInterfaces(srcModel);
@@ -95,23 +147,126 @@ public class ClarpseGoCompiler implements ClarpseCompiler {
         Collection<ProjectFile> goFiles = projectFiles.files(Lang.GOLANG);
         final OOPSourceCodeModel srcModel = new OOPSourceCodeModel();
         final Set<ProjectFile> compileFailures = new HashSet<>();
+        final CompileEvents events = new CompileEvents(Lang.GOLANG, this.listeners);
         final List<GoModule> modules = new GoModules(projectFiles).list();
+        final Map<String, List<Package>> modulePkgs = new HashMap<>();
         if (modules.isEmpty() && !goFiles.isEmpty()) {
             throw new CompileException("No Go modules were detected, please ensure a "
                                                    + "valid go.mod file exists!");
         } else if (!modules.isEmpty()) {
             for (GoModule module : modules) {
-                compileFailures.addAll(compileGoCode(
-                        srcModel, module.getProjectFiles().files(Lang.GOLANG)));
+                final Collection<ProjectFile> moduleFiles = module.getProjectFiles().files(Lang.GOLANG);
+                final TreeSet<Package> pkgs = sourcePkgs(moduleFiles);
+                modulePkgs.put(module.moduleDir(), new ArrayList<>(pkgs));
+                compileFailures.addAll(compileGoCode(srcModel, moduleFiles, pkgs, events));
             }
         }
-        return new CompileResult(srcModel, compileFailures);
+        return new GoCompileResult(srcModel, compileFailures, events.metrics(),
+                                   events.failureReasons(), modulePkgs);
+    }
+
+    /**
+     * Re-parses every Go file in the package dirs of the changed and deleted files, since methods
+     * of a struct may be declared in any file of the struct's package. Implemented interfaces
+     * are only resolved for the re-parsed components, unless interfaces were added or removed,
+     * in which case they are resolved again for all components. Since imports in every file are
+     * resolved against the packages of the whole module, all files are compiled again if the
+     * changes add, remove or rename packages. Packages are compared against the ones recorded in
+     * the previous result, as lazily loaded previous files may already reflect the changes.
+     */
+    @Override
+    public CompileResult recompile(final ProjectFiles projectFiles, final ProjectFiles previousFiles,
+                                   final CompileResult previous, final Set<String> changedPaths,
+                                   final Set<String> deletedPaths) throws CompileException {
+        final Set<String> modifiedPaths = new HashSet<>(changedPaths);
+        modifiedPaths.addAll(deletedPaths);
+        if (modifiedPaths.stream().anyMatch(path -> path.endsWith("go.mod"))) {
+            LOGGER.info("Go modules were modified, compiling all files.");
+            return compile(projectFiles);
+        }
+        if (!(previous instanceof GoCompileResult)) {
+            LOGGER.info("Packages of the previous result are unknown, compiling all files.");
+            return compile(projectFiles);
+        }
+        final List<GoModule> modules = new GoModules(projectFiles).list();
+        final Map<String, TreeSet<Package>> modulePkgs = new HashMap<>();
+        for (final GoModule module : modules) {
+            final TreeSet<Package> pkgs = sourcePkgs(module.getProjectFiles().files(Lang.GOLANG));
+            // Package order matters as well, since it decides which package an import resolves to.
+            if (!new ArrayList<>(pkgs).equals(((GoCompileResult) previous).modulePkgs(module))) {
+                LOGGER.info("Packages of Go module " + module.moduleName()
+                                + " were modified, compiling all files.");
+                return compile(projectFiles);
+            }
+            modulePkgs.put(module.moduleDir(), pkgs);
+        }
+        // Module relative package dirs of all modified files.
+        final Set<String> affectedDirs = new HashSet<>();
+        for (final String modifiedPath : modifiedPaths) {
+            if (modifiedPath.endsWith(".go")) {
+                for (final GoModule module : modules) {
+                    if (module.contains(modifiedPath)) {
+                        affectedDirs.add(parentDir(module.relativePath(modifiedPath)));
+                    }
+                }
+            }
+        }
+        final OOPSourceCodeModel srcModel = previous.model();
+        final CompileEvents events = new CompileEvents(Lang.GOLANG, this.listeners);
+        final Set<ProjectFile> compileFailures = new HashSet<>(previous.failures());
+        compileFailures.removeIf(failure -> modifiedPaths.contains(failure.path())
+            || affectedDirs.contains(parentDir(failure.path())));
+        final Set<String> staleFiles = srcModel.components().map(Component::sourceFile).filter(
+            path -> path != null && affectedDirs.contains(parentDir(path)))
+                                               .collect(Collectors.toSet());
+        final List<Component> removedCmps = srcModel.removeFileComponents(staleFiles);
+        final OOPSourceCodeModel affectedModel = new OOPSourceCodeModel(srcModel.symbols());
+        for (final GoModule module : modules) {
+            final Collection<ProjectFile> moduleFiles = module.getProjectFiles().files(Lang.GOLANG);
+            final List<ProjectFile> affectedFiles = moduleFiles.stream().filter(
+                file -> affectedDirs.contains(parentDir(file.path()))).collect(Collectors.toList());
+            if (!affectedFiles.isEmpty()) {
+                compileFailures.addAll(parseGoFiles(affectedFiles, affectedModel,
+                                                    modulePkgs.get(module.moduleDir()), events));
+            }
+        }
+        updateStructCyclomaticComplexities(affectedModel);
+        final boolean interfacesModified = Stream.concat(removedCmps.stream(), affectedModel.components())
+            .anyMatch(cmp -> cmp.componentType() == OOPSourceModelConstants.ComponentType.INTERFACE);
+        final long mergeStart = events.phaseStarted(Phase.MERGE);
+        srcModel.merge(affectedModel);
+        events.phaseFinished(Phase.MERGE, mergeStart);
+        final long resolutionStart = events.phaseStarted(Phase.INTERFACE_RESOLUTION);
+        if (interfacesModified) {
+            LOGGER.info("Go interfaces were modified, resolving all implemented interfaces.");
+            removeTypeImplementationRefs(srcModel);
+            resolveInterfaces(srcModel);
+        } else {
+            resolveInterfaces(srcModel, affectedModel);
+        }
+        events.phaseFinished(Phase.INTERFACE_RESOLUTION, resolutionStart);
+        final Map<String, String> failureReasons = new HashMap<>(previous.failureReasons());
+        failureReasons.putAll(events.failureReasons());
+        return new GoCompileResult(srcModel, compileFailures, events.metrics(), failureReasons,
+                                   ((GoCompileResult) previous).modulePkgs());
+    }
+
+    private static String parentDir(final String path) {
+        final int lastSeparator = path.lastIndexOf('/');
+        return lastSeparator <= 0 ? "/" : path.substring(0, lastSeparator);
+    }
+
+    private void removeTypeImplementationRefs(final OOPSourceCodeModel srcModel) {
+        srcModel.components().filter(cmp -> cmp.componentType().isBaseComponent()).forEach(
+            cmp -> cmp.removeReferences(OOPSourceModelConstants.TypeReferences.IMPLEMENTATION));
     }
 
     private Collection<ProjectFile> compileGoCode(OOPSourceCodeModel srcModel,
-                                                  Collection<ProjectFile> files) throws CompileException {
-        TreeSet<Package> sortedSet = sourcePkgs(files);
-        Collection<ProjectFile> failures = parseGoFiles(files, srcModel, sortedSet);
+                                                  Collection<ProjectFile> files,
+                                                  TreeSet<Package> sortedSet,
+                                                  CompileEvents events) throws CompileException {
+        Collection<ProjectFile> failures = parseGoFiles(files, srcModel, sortedSet, events);
+        final long resolutionStart = events.phaseStarted(Phase.INTERFACE_RESOLUTION);
         /**
          * In GoLang, interfaces are implemented implicitly. As a result, we handle
          * their detection in the following way: Once we have parsed the entire code
@@ -119,6 +274,7 @@ public class ClarpseGoCompiler implements ClarpseCompiler {
          * if that struct implements the given interface.
          */
         resolveInterfaces(srcModel);
+        events.phaseFinished(Phase.INTERFACE_RESOLUTION, resolutionStart);
         /**
          * Update cyclomatic complexities of all structs. We do this right now after the source
          * code model has been built as opposed to at parse time because methods for any given
@@ -149,77 +305,336 @@ public class ClarpseGoCompiler implements ClarpseCompiler {
         });
     }
 
+    /**
+     * Parses every file into its own source model, optionally on a worker pool. Struct methods
+     * whose receiver struct is declared in another file cannot be bound while parsing, so they
+     * are bound once all files have been parsed, after which the per-file models are merged in
+     * file order.
+     */
     private Collection<ProjectFile> parseGoFiles(final Collection<ProjectFile> moduleFiles,
                               final OOPSourceCodeModel srcModel,
-                              final TreeSet<Package> modulePkgs) {
-        // Holds types that may be accessed by all the source ProjectFile parsing operations...
-        final List<Map.Entry<String, Component>> structWaitingList = new ArrayList<>();
-        Collection<ProjectFile> failures = new ArrayList<>();
-        for (final ProjectFile moduleFile : moduleFiles) {
-            try {
-                final CharStream charStream = new ANTLRInputStream(moduleFile.content());
-                final TokenStream tokens = new CommonTokenStream(new GoLexer(charStream));
-                final GoParser parser = new GoParser(tokens);
-                final GoParser.SourceFileContext sourceFileContext = parser.sourceFile();
-                if (parser.getNumberOfSyntaxErrors() > 0) {
-                    failures.add(moduleFile);
-                }
-                final ParseTreeWalker walker = new ParseTreeWalker();
-                final GoParserBaseListener listener = new GoLangTreeListener(
-                    srcModel, modulePkgs, moduleFile, structWaitingList);
-                walker.walk(listener, sourceFileContext);
-            } catch (final Exception e) {
-                LOGGER.error("Failed to parse file " + moduleFile.path() + ".", e);
-                failures.add(moduleFile);
+                              final TreeSet<Package> modulePkgs,
+                              final CompileEvents events) {
+        final List<ProjectFile> files = new ArrayList<>(moduleFiles);
+        final int parallelism = CompilerParallelism.resolve(files.size());
+        final ParseCache cache = this.parseCache;
+        // Imports are resolved against the module's packages, so they are part of the cache key.
+        final String pkgsDigest = cache.enabled() ? ParseCache.digest(modulePkgs.stream().map(
+            pkg -> pkg.name() + ":" + pkg.path()).collect(Collectors.joining(";"))) : "";
+        // Per-file models intern their components in the table of the model they are merged into.
+        final SymbolTable symbols = srcModel.symbols();
+        final FileParser fileParser = (file, index) -> parseSingleFile(modulePkgs, file, index, cache,
+                                                                       pkgsDigest, symbols, events);
+        final List<ParseOutcome> outcomes;
+        if (parallelism > 1) {
+            LOGGER.info("Parsing Go files in parallel using " + parallelism + " threads.");
+            outcomes = parseGoFilesParallel(files, fileParser, parallelism);
+        } else {
+            outcomes = parseGoFilesSerial(files, fileParser);
+        }
+        cache.evict();
+        final long bindStart = events.phaseStarted(Phase.SYMBOL_RESOLUTION);
+        bindStructMethods(outcomes);
+        events.phaseFinished(Phase.SYMBOL_RESOLUTION, bindStart);
+        final long mergeStart = events.phaseStarted(Phase.MERGE);
+        final Collection<ProjectFile> failures = new ArrayList<>();
+        for (final ParseOutcome outcome : outcomes) {
+            srcModel.merge(outcome.model);
+            if (outcome.failure != null) {
+                failures.add(outcome.failure);
             }
         }
+        events.phaseFinished(Phase.MERGE, mergeStart);
         return failures;
     }
+
+    private List<ParseOutcome> parseGoFilesSerial(final List<ProjectFile> moduleFiles,
+                                                  final FileParser fileParser) {
+        final List<ParseOutcome> outcomes = new ArrayList<>();
+        for (int i = 0; i < moduleFiles.size(); i++) {
+            outcomes.add(fileParser.parse(moduleFiles.get(i), i));
+        }
+        return outcomes;
+    }
+
+    @SuppressWarnings("PMD.CloseResource")
+    private List<ParseOutcome> parseGoFilesParallel(final List<ProjectFile> moduleFiles,
+                                                    final FileParser fileParser,
+                                                    final int parallelism) {
+        final ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            final List<Future<ParseOutcome>> futures = new ArrayList<>();
+            for (int i = 0; i < moduleFiles.size(); i++) {
+                final int index = i;
+                final ProjectFile moduleFile = moduleFiles.get(i);
+                futures.add(executor.submit(() -> fileParser.parse(moduleFile, index)));
+            }
+            final List<ParseOutcome> outcomes = new ArrayList<>();
+            for (final Future<ParseOutcome> future : futures) {
+                try {
+                    outcomes.add(future.get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while parsing Go files.", e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Failed while parsing Go files in parallel.", e);
+                }
+            }
+            outcomes.sort((a, b) -> Integer.compare(a.index, b.index));
+            return outcomes;
+        } finally {
+            CompilerParallelism.shutdown(executor);
+        }
+    }
+
+    /**
+     * Binds methods to receiver structs declared in a different file than the method itself and,
+     * as is done for structs that are already known at parse time, copies the method's
+     * references up to the struct. Methods are re-homed within their own file's model before
+     * any merging takes place, because unbound methods of different structs in the same package
+     * share the same name until they are bound.
+     */
+    private void bindStructMethods(final List<ParseOutcome> outcomes) {
+        final Map<String, Component> structs = new HashMap<>();
+        for (final ParseOutcome outcome : outcomes) {
+            outcome.model.components().filter(cmp -> cmp.componentType()
+                == OOPSourceModelConstants.ComponentType.STRUCT).forEach(
+                    cmp -> structs.put(cmp.uniqueName(), cmp));
+        }
+        for (final ParseOutcome outcome : outcomes) {
+            for (final Map.Entry<String, Component> entry : outcome.structWaitingList) {
+                final Component structCmp = structs.get(entry.getKey());
+                if (structCmp != null && !outcome.model.containsComponent(entry.getKey())) {
+                    final Component methodCmp = entry.getValue();
+                    GoLangTreeListener.bindMethodToStruct(outcome.model, structCmp, methodCmp);
+                    structCmp.insertCmpRefs(methodCmp.references());
+                }
+            }
+        }
+    }
+
+    private ParseOutcome parseSingleFile(final TreeSet<Package> modulePkgs,
+                                         final ProjectFile moduleFile,
+                                         final int index,
+                                         final ParseCache cache,
+                                         final String pkgsDigest,
+                                         final SymbolTable symbols,
+                                         final CompileEvents events) {
+        String cacheKey = null;
+        if (cache.enabled()) {
+            final long start = System.nanoTime();
+            cacheKey = cache.key(Lang.GOLANG, moduleFile, pkgsDigest);
+            final Optional<ParseCache.Fragment> fragment = cache.get(cacheKey);
+            if (fragment.isPresent()) {
+                events.fileCached(moduleFile, fragment.get(), start);
+                return new ParseOutcome(index, fragment.get().model(),
+                                        fragment.get().failed() ? moduleFile : null,
+                                        fragment.get().pendingChildren());
+            }
+        }
+        final OOPSourceCodeModel srcModel = new OOPSourceCodeModel(symbols);
+        // Holds struct methods whose receiver struct has not been parsed yet.
+        final List<Map.Entry<String, Component>> structWaitingList = new ArrayList<>();
+        ProjectFile failure = null;
+        final long start = events.fileStarted(moduleFile);
+        try {
+            final FileBudget.Deadline deadline = this.budget.start(moduleFile);
+            final long parseStart = events.phaseStarted(Phase.PARSE, moduleFile);
+            final CharStream charStream = new ANTLRInputStream(moduleFile.content());
+            final TokenStream tokens = new DeadlineTokenStream(new GoLexer(charStream), deadline);
+            final GoParser parser = new GoParser(tokens);
+            final GoParser.SourceFileContext sourceFileContext = parseSourceFile(parser);
+            events.phaseFinished(Phase.PARSE, moduleFile, parseStart);
+            deadline.check();
+            if (parser.getNumberOfSyntaxErrors() > 0) {
+                failure = moduleFile;
+                events.fileFailed(moduleFile, null);
+            }
+            final long resolutionStart = events.phaseStarted(Phase.SYMBOL_RESOLUTION, moduleFile);
+            final ParseTreeWalker walker = new DeadlineTreeWalker(deadline);
+            final GoParserBaseListener listener = new GoLangTreeListener(
+                srcModel, modulePkgs, moduleFile, structWaitingList);
+            walker.walk(listener, sourceFileContext);
+            events.phaseFinished(Phase.SYMBOL_RESOLUTION, moduleFile, resolutionStart);
+        } catch (final FileBudgetExceededException e) {
+            LOGGER.warn("Aborted file " + moduleFile.path() + ". " + e.getMessage());
+            events.fileFailed(moduleFile, e);
+            events.fileFinished(moduleFile, start);
+            // Not cached, as the outcome depends on the budget and the speed of the machine.
+            return new ParseOutcome(index, new OOPSourceCodeModel(), moduleFile, Collections.emptyList());
+        } catch (final Exception e) {
+            LOGGER.error("Failed to parse file " + moduleFile.path() + ".", e);
+            failure = moduleFile;
+            events.fileFailed(moduleFile, e);
+        }
+        events.fileFinished(moduleFile, start);
+        if (cacheKey != null) {
+            // Stored before struct methods are bound across files, which modifies the model.
+            cache.put(cacheKey, new ParseCache.Fragment(srcModel, failure != null,
+                                                        events.failureReasons().get(moduleFile.path()),
+                                                        structWaitingList));
+        }
+        return new ParseOutcome(index, srcModel, failure, structWaitingList);
+    }
+
+    /**
+     * Checks the deadline of the parsed file whenever the parser reads a token.
+     */
+    private static final class DeadlineTokenStream extends CommonTokenStream {
+        private final FileBudget.Deadline deadline;
+
+        private DeadlineTokenStream(final TokenSource tokenSource, final FileBudget.Deadline deadline) {
+            super(tokenSource);
+            this.deadline = deadline;
+        }
+
+        @Override
+        public Token LT(final int k) {
+            this.deadline.tick();
+            return super.LT(k);
+        }
+    }
+
+    /**
+     * Checks the deadline of the walked file whenever a rule node is entered.
+     */
+    private static final class DeadlineTreeWalker extends ParseTreeWalker {
+        private final FileBudget.Deadline deadline;
+
+        private DeadlineTreeWalker(final FileBudget.Deadline deadline) {
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected void enterRule(final ParseTreeListener listener, final RuleNode r) {
+            this.deadline.tick();
+            super.enterRule(listener, r);
+        }
+    }
+
+    /**
+     * Parses the source file of the given parser in two stages. The first stage uses the faster
+     * SLL prediction mode and bails out on the first syntax error, which is either a real error
+     * or an ambiguity only full LL prediction resolves. Only then is the file parsed again using
+     * LL prediction, which reports syntax errors as usual. Both stages produce the same parse
+     * tree for files the first stage accepts.
+     */
+    private static GoParser.SourceFileContext parseSourceFile(final GoParser parser) {
+        final List<? extends ANTLRErrorListener<? super Token>> errorListeners =
+            new ArrayList<>(parser.getErrorListeners());
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+        parser.setErrorHandler(new BailErrorStrategy());
+        parser.removeErrorListeners();
+        try {
+            return parser.sourceFile();
+        } catch (final ParseCancellationException e) {
+            parser.reset();
+            errorListeners.forEach(parser::addErrorListener);
+            parser.setErrorHandler(new DefaultErrorStrategy());
+            parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+            return parser.sourceFile();
+        }
+    }
+
+    @FunctionalInterface
+    private interface FileParser {
+        ParseOutcome parse(ProjectFile file, int index);
+    }
+
+    private static final class ParseOutcome {
+        private final int index;
+        private final OOPSourceCodeModel model;
+        private final ProjectFile failure;
+        private final List<Map.Entry<String, Component>> structWaitingList;
+
+        private ParseOutcome(final int index, final OOPSourceCodeModel model, final ProjectFile failure,
+                             final List<Map.Entry<String, Component>> structWaitingList) {
+            this.index = index;
+            this.model = model;
+            this.failure = failure;
+            this.structWaitingList = structWaitingList;
+        }
+    }
 }
 
+/**
+ * Resolves the interfaces implemented by Go structs. Interfaces are indexed by the signatures of
+ * their method specs so that each struct is only checked against interfaces it shares at least
+ * one method signature with.
+ */
 class ImplementedInterfaces {
     private final OOPSourceCodeModel model;
-    private final Map<String, List<String>> interfaceMethodSpecsPairs;
+    /**
+     * Unique names of all interfaces with at least one available method spec, sorted.
+     */
+    private final List<String> interfaceNames = new ArrayList<>();
+    /**
+     * Number of distinct method spec signatures of each interface, indexed like interfaceNames.
+     */
+    private final List<Integer> interfaceSpecCounts = new ArrayList<>();
+    /**
+     * Maps a method signature to the indices of the interfaces declaring it.
+     */
+    private final Map<String, List<Integer>> signatureIndex = new HashMap<>();
+    /**
+     * Per-interface count of matched signatures, reset after every struct. Makes instances of
+     * this class unsafe for concurrent use.
+     */
+    private final int[] matchCounts;
 
     ImplementedInterfaces(final OOPSourceCodeModel srcModel) throws CompileException {
         model = srcModel;
-        final Set<Component> allInterfaceComponents =
-            srcModel.components().filter(s -> (s.componentType() == OOPSourceModelConstants.ComponentType.INTERFACE)).collect(Collectors.toSet());
-        interfaceMethodSpecsPairs = new HashMap<>();
+        final List<Component> allInterfaceComponents =
+            srcModel.components().filter(s -> (s.componentType() == OOPSourceModelConstants.ComponentType.INTERFACE))
+                    .sorted(Comparator.comparing(Component::uniqueName)).collect(Collectors.toList());
         for (final Component interfaceCmp : allInterfaceComponents) {
-            final List<String> interfaceMethodSpecs = getListOfMethodSpecs(interfaceCmp);
+            final Set<String> interfaceMethodSpecs = new HashSet<>(getListOfMethodSpecs(interfaceCmp));
             if (!interfaceMethodSpecs.isEmpty()) {
-                interfaceMethodSpecsPairs.put(interfaceCmp.uniqueName(), interfaceMethodSpecs);
+                final int interfaceIndex = interfaceNames.size();
+                interfaceNames.add(interfaceCmp.uniqueName());
+                interfaceSpecCounts.add(interfaceMethodSpecs.size());
+                for (final String methodSpec : interfaceMethodSpecs) {
+                    signatureIndex.computeIfAbsent(methodSpec, k -> new ArrayList<>()).add(interfaceIndex);
+                }
             }
         }
+        matchCounts = new int[interfaceNames.size()];
     }
 
     /**
      * Retrieves a list of Strings corresponding to the interfaces implemented
-     * by the given base {@linkplain Component}.
+     * by the given base {@linkplain Component}, sorted by interface name.
      */
     List<String> getImplementedInterfaces(final Component baseComponent) {
         // holds all the implemented interfaces for the given component
         final List<String> implementedInterfaces = new ArrayList<>();
         if (baseComponent.componentType().isBaseComponent() && baseComponent.componentType() != OOPSourceModelConstants.ComponentType.INTERFACE) {
-            // generate a list of method signatures for the given base component.
-            final List<String> baseComponentMethodSignatures = new ArrayList<>();
+            // generate the set of method signatures for the given base component.
+            final Set<String> baseComponentMethodSignatures = new HashSet<>();
             for (final String baseComponentChild : baseComponent.children()) {
                 final Optional<Component> childCmp = model.getComponent(baseComponentChild);
                 if (childCmp.isPresent() && childCmp.get().componentType().isMethodComponent()) {
                     baseComponentMethodSignatures.add(generateMethodSignature(childCmp.get()));
                 }
             }
-            // check to see if the current component satisfies any of the collected interfaces
-            if (!baseComponentMethodSignatures.isEmpty()) {
-                for (final Entry<String, List<String>> potentiallyImplementedInterface
-                    : interfaceMethodSpecsPairs.entrySet()) {
-                    if (new HashSet<>(baseComponentMethodSignatures).containsAll(potentiallyImplementedInterface.getValue())) {
-                        // found a match!
-                        implementedInterfaces.add(potentiallyImplementedInterface.getKey());
+            // count matched method specs for every interface sharing a signature with the
+            // component, an interface is implemented once all of its specs are matched.
+            final List<Integer> candidates = new ArrayList<>();
+            for (final String signature : baseComponentMethodSignatures) {
+                for (final int interfaceIndex : signatureIndex.getOrDefault(signature, Collections.emptyList())) {
+                    if (matchCounts[interfaceIndex]++ == 0) {
+                        candidates.add(interfaceIndex);
                     }
                 }
             }
+            Collections.sort(candidates);
+            for (final int interfaceIndex : candidates) {
+                if (matchCounts[interfaceIndex] == interfaceSpecCounts.get(interfaceIndex)) {
+                    // found a match!
+                    implementedInterfaces.add(interfaceNames.get(interfaceIndex));
+                }
+                matchCounts[interfaceIndex] = 0;
+            }
         }
         return implementedInterfaces;
     }
@@ -251,19 +666,21 @@ class ImplementedInterfaces {
     }
 
     private String generateMethodSignature(final Component methodComponent) {
-        StringBuilder signature = new StringBuilder(methodComponent.name() + "(");
+        final StringJoiner params = new StringJoiner(",", methodComponent.name() + "(", ")");
         for (final String methodParam : methodComponent.children()) {
             final Optional<Component> methodParamCmp = model.getComponent(methodParam);
-            if (methodParamCmp.isPresent() && methodParamCmp.get().references(OOPSourceModelConstants.TypeReferences.SIMPLE).size() > 0) {
-                signature.append(methodParamCmp.get().references(OOPSourceModelConstants.TypeReferences.SIMPLE).get(0).invokedComponent()).append(",");
+            if (methodParamCmp.isPresent()) {
+                final List<ComponentReference> paramTypes =
+                    methodParamCmp.get().references(OOPSourceModelConstants.TypeReferences.SIMPLE);
+                if (!paramTypes.isEmpty()) {
+                    params.add(paramTypes.get(0).invokedComponent());
+                }
             }
         }
-        signature = new StringBuilder(signature.toString().replaceAll(",$", ""));
-        signature.append(")");
+        final String signature = params.toString();
         if (methodComponent.value() != null) {
-            signature.append(methodComponent.value().replaceAll(" ", ""));
+            return signature + methodComponent.value().replace(" ", "");
         }
-        return signature.toString();
+        return signature;
     }
 }
-
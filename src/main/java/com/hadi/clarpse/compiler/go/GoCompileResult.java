@@ -0,0 +1,40 @@
+package com.hadi.clarpse.compiler.go;
+
+import com.hadi.clarpse.compiler.CompileMetrics;
+import com.hadi.clarpse.compiler.CompileResult;
+import com.hadi.clarpse.compiler.ProjectFile;
+import com.hadi.clarpse.sourcemodel.OOPSourceCodeModel;
+import com.hadi.clarpse.sourcemodel.Package;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Result of a Go compilation that also records the sorted packages of every module the files
+ * were compiled against, so that an update can detect added, removed or renamed packages
+ * without reading the files as they were before the update.
+ */
+class GoCompileResult extends CompileResult {
+
+    private final Map<String, List<Package>> modulePkgs;
+
+    GoCompileResult(final OOPSourceCodeModel model, final Set<ProjectFile> failures,
+                    final CompileMetrics metrics, final Map<String, String> failureReasons,
+                    final Map<String, List<Package>> modulePkgs) {
+        super(model, failures, metrics, failureReasons);
+        this.modulePkgs = modulePkgs;
+    }
+
+    /**
+     * Returns the packages the files of the given module were compiled against, or null when
+     * the module was not part of the compilation.
+     */
+    List<Package> modulePkgs(final GoModule module) {
+        return this.modulePkgs.get(module.moduleDir());
+    }
+
+    Map<String, List<Package>> modulePkgs() {
+        return this.modulePkgs;
+    }
+}
@@ -17,27 +17,23 @@ public class GoModule {
     private static final Logger LOGGER = LogManager.getLogger(GoModule.class);
     private final ProjectFiles projectFiles;
     private final String moduleName;
+    private final String moduleDir;
 
     public GoModule(ProjectFiles projectFiles, ProjectFile moduleFile) {
         this.moduleName = this.extractModuleName(moduleFile);
         if (this.moduleName.isEmpty()) {
             throw new IllegalArgumentException("Module name cannot be empty!");
         }
+        this.moduleDir = moduleFile.dir();
         this.projectFiles = new ProjectFiles();
         projectFiles.files(Lang.GOLANG).forEach(file -> {
             if (file.path().endsWith(".go")) {
-                if (moduleFile.dir().equals("/")) {
-                    this.projectFiles.insertFile(new ProjectFile(
-                        file.path(),
-                        file.content().replaceAll(this.moduleName + "/", "")
-                            .replaceAll(this.moduleName, "")));
-                } else {
-                    // Non-root level module, transform file path to relative path
-                    this.projectFiles.insertFile(new ProjectFile(
-                        file.path().replace(moduleFile.dir(), ""),
-                        file.content().replaceAll(this.moduleName + "/", "")
-                            .replaceAll(this.moduleName, "")));
-                }
+                // Non-root level modules transform file paths to relative paths, module names are
+                // stripped once the content is loaded so streamed files are not held in memory.
+                this.projectFiles.insertFile(file.withPath(
+                    relativePath(file.path()),
+                    content -> content.replaceAll(this.moduleName + "/", "")
+                        .replaceAll(this.moduleName, "")));
             }
         });
         LOGGER.info("Go module " + this.moduleName + " contains " + this.projectFiles.size() + " files");
@@ -53,6 +49,23 @@ public class GoModule {
         }
     }
 
+    /**
+     * Returns whether the given project file path lies within this module.
+     */
+    public boolean contains(final String projectFilePath) {
+        return this.moduleDir.equals("/") || projectFilePath.startsWith(this.moduleDir);
+    }
+
+    /**
+     * Transforms the given project file path into the path used for the file within this module.
+     */
+    public String relativePath(final String projectFilePath) {
+        if (this.moduleDir.equals("/")) {
+            return projectFilePath;
+        }
+        return projectFilePath.replace(this.moduleDir, "");
+    }
+
     public ProjectFiles getProjectFiles() {
         return projectFiles;
     }
@@ -60,4 +73,11 @@ public class GoModule {
     public String moduleName() {
         return moduleName;
     }
+
+    /**
+     * Returns the project dir containing the go.mod file of this module.
+     */
+    public String moduleDir() {
+        return moduleDir;
+    }
 }
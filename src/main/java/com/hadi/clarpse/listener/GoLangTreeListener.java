@@ -460,30 +460,47 @@ public class GoLangTreeListener extends GoParserBaseListener {
     }
 
     private void updateStructChild(final Component structCmp, final Component structChildCmp) {
+        bindMethodToStruct(srcModel, structCmp, structChildCmp);
+    }
+
+    /**
+     * Re-homes the given method component (and its children) under the given struct component
+     * within the given source model. Used both while parsing and by compilers that bind
+     * methods to receiver structs declared in other files once all files have been parsed.
+     */
+    public static void bindMethodToStruct(final OOPSourceCodeModel srcModel, final Component structCmp,
+                                          final Component structChildCmp) {
         if (srcModel.containsComponent(structChildCmp.uniqueName())) {
             srcModel.removeComponent(structChildCmp.uniqueName());
         }
         structChildCmp.setComponentName(structCmp.componentName() + "." + structChildCmp.codeFragment());
         structChildCmp.setPkg(structCmp.pkg());
         srcModel.insertComponent(structChildCmp);
-        final List<String> childrenToBeRemoved = new ArrayList<>();
-        final List<String> childrenToBeAdded = new ArrayList<>();
+        // Children may be listed more than once (e.g. shadowed local variables), so remember
+        // the new name of every child that has already been moved.
+        final Map<String, String> renamedChildren = new HashMap<>();
+        final List<String> updatedChildren = new ArrayList<>();
         for (final String child : structChildCmp.children()) {
-            final Optional<Component> childCmpOptional = srcModel.getComponent(child);
-            if (childCmpOptional.isPresent()) {
-                Component childCmp = childCmpOptional.get();
-                childCmp.setComponentName(structChildCmp.componentName() + "." + childCmp.name());
-                childCmp.setPkg(structChildCmp.pkg());
-                childrenToBeAdded.add(childCmp.uniqueName());
-                if (!child.equals(childCmp.uniqueName())) {
-                    childrenToBeRemoved.add(child);
-                    srcModel.removeComponent(child);
-                    srcModel.insertComponent(childCmp);
+            String updatedChild = renamedChildren.get(child);
+            if (updatedChild == null) {
+                updatedChild = child;
+                final Optional<Component> childCmpOptional = srcModel.getComponent(child);
+                if (childCmpOptional.isPresent()) {
+                    Component childCmp = childCmpOptional.get();
+                    childCmp.setComponentName(structChildCmp.componentName() + "." + childCmp.name());
+                    childCmp.setPkg(structChildCmp.pkg());
+                    updatedChild = childCmp.uniqueName();
+                    if (!child.equals(updatedChild)) {
+                        srcModel.removeComponent(child);
+                        srcModel.insertComponent(childCmp);
+                    }
                 }
+                renamedChildren.put(child, updatedChild);
             }
+            updatedChildren.add(updatedChild);
         }
-        childrenToBeRemoved.forEach(item -> structChildCmp.children().remove(item));
-        childrenToBeAdded.forEach(structChildCmp::insertChildComponent);
+        structChildCmp.children().clear();
+        updatedChildren.forEach(structChildCmp::insertChildComponent);
         structCmp.insertChildComponent(structChildCmp.uniqueName());
     }
 
@@ -113,7 +113,7 @@ public class ES6Module {
         classImports.add(es6ClassImport);
     }
 
-    List<ES6ClassImport> getClassImports() {
+    public List<ES6ClassImport> getClassImports() {
         return classImports;
     }
 
@@ -3,14 +3,18 @@ package com.hadi.clarpse.listener.es6;
 import org.apache.commons.io.FilenameUtils;
 
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
+/**
+ * Thread-safe registry of the ES6 modules discovered in a project, keyed by module path.
+ */
 public class ModulesMap {
 
-    private final Map<String, ES6Module> modulesMap = new HashMap<>();
+    private final Map<String, ES6Module> modulesMap = new ConcurrentHashMap<>();
 
     void insertModule(final ES6Module module) {
         modulesMap.put(module.modulePath(), module);
@@ -32,6 +36,15 @@ public class ModulesMap {
         return modulesMap.values();
     }
 
+    /**
+     * Returns all modules ordered by module path, independent of the order in which the modules
+     * were registered.
+     */
+    public List<ES6Module> sortedModules() {
+        return modules().stream().sorted(Comparator.comparing(ES6Module::modulePath))
+                        .collect(Collectors.toList());
+    }
+
     public List<ES6Module> matchingModules(final String importedModuleDir) {
         return modules().stream().filter(module -> module.modulePath()
                                                          .endsWith(FilenameUtils.removeExtension(importedModuleDir)))
@@ -6,6 +6,7 @@ import com.fasterxml.jackson.annotation.JsonSubTypes.Type;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 
 import java.io.Serializable;
+import java.util.function.UnaryOperator;
 
 /**
  * Represents a reference to another component in the code base.
@@ -46,6 +47,14 @@ public abstract class ComponentReference implements Serializable, Cloneable {
         return invokedComponent;
     }
 
+    /**
+     * Replaces the name of the invoked component with its shared instance, the name itself
+     * does not change.
+     */
+    public void internInvokedComponent(final UnaryOperator<String> symbols) {
+        invokedComponent = symbols.apply(invokedComponent);
+    }
+
     public boolean isExternal() {
         return external;
     }
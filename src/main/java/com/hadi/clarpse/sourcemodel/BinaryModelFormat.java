@@ -0,0 +1,55 @@
+package com.hadi.clarpse.sourcemodel;
+
+import com.hadi.clarpse.reference.ComponentReference;
+import com.hadi.clarpse.reference.SimpleTypeReference;
+import com.hadi.clarpse.reference.TypeExtensionReference;
+import com.hadi.clarpse.reference.TypeImplementationReference;
+import com.hadi.clarpse.sourcemodel.OOPSourceModelConstants.TypeReferences;
+
+/**
+ * Constants of the compact binary format of {@link OOPSourceCodeModel}s, written by
+ * {@link BinaryModelWriter} and read by {@link BinaryModelReader}.
+ * <p>
+ * A model file starts with the magic bytes {@code CLPM} and the format version, followed by a
+ * table of all distinct strings of the model and then its components. Integers are written as
+ * unsigned LEB128 varints, signed ones zigzag encoded first. Strings are written as their
+ * index in the string table, plus one for nullable strings so that 0 denotes null. Each
+ * component is written as its component name, name, value, comment, source file, code fragment,
+ * component type name, whether it has a package followed by the package name and path, cyclo,
+ * code hash, children, imports, modifiers and references. References are written as a tag
+ * holding their {@link TypeReferences} ordinal and whether they are external, followed by the
+ * invoked component.
+ */
+final class BinaryModelFormat {
+
+    static final byte[] MAGIC = {'C', 'L', 'P', 'M'};
+    static final int VERSION = 1;
+    static final int NULL_INDEX = 0;
+
+    private BinaryModelFormat() {
+    }
+
+    static int referenceTag(final ComponentReference reference) {
+        return TypeReferences.of(reference).ordinal() << 1 | (reference.isExternal() ? 1 : 0);
+    }
+
+    static ComponentReference reference(final int tag, final String invokedComponent) {
+        final int ordinal = tag >>> 1;
+        if (ordinal >= TypeReferences.values().length) {
+            throw new IllegalArgumentException("Unknown reference tag: " + tag + ".");
+        }
+        final ComponentReference reference;
+        switch (TypeReferences.values()[ordinal]) {
+            case EXTENSION:
+                reference = new TypeExtensionReference(invokedComponent);
+                break;
+            case IMPLEMENTATION:
+                reference = new TypeImplementationReference(invokedComponent);
+                break;
+            default:
+                reference = new SimpleTypeReference(invokedComponent);
+        }
+        reference.setExternal((tag & 1) == 1);
+        return reference;
+    }
+}
@@ -0,0 +1,174 @@
+package com.hadi.clarpse.sourcemodel;
+
+import com.hadi.clarpse.reference.ComponentReference;
+import com.hadi.clarpse.sourcemodel.OOPSourceModelConstants.ComponentType;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads {@link OOPSourceCodeModel}s written by {@link BinaryModelWriter}.
+ */
+public final class BinaryModelReader {
+
+    /**
+     * Upper bound of the capacity allocated up front for the string table, so that a corrupt
+     * string count fails on the end of the stream instead of exhausting memory.
+     */
+    private static final int MAX_INITIAL_CAPACITY = 1024;
+
+    private final InputStream in;
+    private String[] strings;
+
+    /**
+     * @param in Stream the model is read from, it is not closed after reading. Only the bytes of
+     *           the model are read from it, so it should be buffered by the caller.
+     */
+    public BinaryModelReader(final InputStream in) {
+        this.in = in;
+    }
+
+    public OOPSourceCodeModel read() throws IOException {
+        final byte[] magic = readBytes(BinaryModelFormat.MAGIC.length);
+        if (!Arrays.equals(magic, BinaryModelFormat.MAGIC)) {
+            throw new IOException("Not a binary source code model!");
+        }
+        final int version = readVarInt();
+        if (version != BinaryModelFormat.VERSION) {
+            throw new IOException("Unsupported binary source code model version: " + version + ".");
+        }
+        final int stringCount = readCount();
+        final List<String> strings = new ArrayList<>(Math.min(stringCount, MAX_INITIAL_CAPACITY));
+        for (int i = 0; i < stringCount; i++) {
+            strings.add(new String(readBytes(readCount()), StandardCharsets.UTF_8));
+        }
+        this.strings = strings.toArray(new String[0]);
+        final OOPSourceCodeModel model = new OOPSourceCodeModel();
+        final int componentCount = readCount();
+        for (int i = 0; i < componentCount; i++) {
+            model.insertComponent(readComponent());
+        }
+        return model;
+    }
+
+    private Component readComponent() throws IOException {
+        final Component cmp = new Component();
+        cmp.setComponentName(readNullableString());
+        cmp.setName(readNullableString());
+        cmp.setValue(readNullableString());
+        cmp.setComment(readNullableString());
+        cmp.setSourceFilePath(readNullableString());
+        cmp.setCodeFragment(readNullableString());
+        final String type = readNullableString();
+        cmp.setComponentType(type == null ? null : componentType(type));
+        if (readVarInt() != 0) {
+            cmp.setPkg(new Package(readNullableString(), readString()));
+        }
+        final int cyclo = unZigZag(readVarInt());
+        if (cyclo != 0) {
+            cmp.setCyclo(cyclo);
+        }
+        cmp.setCodeHash(unZigZag(readVarInt()));
+        final int childCount = readCount();
+        for (int i = 0; i < childCount; i++) {
+            cmp.insertChildComponent(readString());
+        }
+        cmp.setImports(readStrings(new HashSet<>()));
+        cmp.modifiers().addAll(readStrings(new LinkedHashSet<>()));
+        final int referenceCount = readCount();
+        for (int i = 0; i < referenceCount; i++) {
+            cmp.insertCmpRef(readReference());
+        }
+        return cmp;
+    }
+
+    private static ComponentType componentType(final String type) throws IOException {
+        try {
+            return ComponentType.valueOf(type);
+        } catch (final IllegalArgumentException e) {
+            throw new IOException("Unknown component type: " + type + ".", e);
+        }
+    }
+
+    private ComponentReference readReference() throws IOException {
+        final int tag = readVarInt();
+        final String invokedComponent = readString();
+        try {
+            return BinaryModelFormat.reference(tag, invokedComponent);
+        } catch (final IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private Set<String> readStrings(final Set<String> values) throws IOException {
+        final int count = readCount();
+        for (int i = 0; i < count; i++) {
+            values.add(readString());
+        }
+        return values;
+    }
+
+    private String readString() throws IOException {
+        return string(readVarInt());
+    }
+
+    private String readNullableString() throws IOException {
+        final int index = readVarInt();
+        return index == BinaryModelFormat.NULL_INDEX ? null : string(index - 1);
+    }
+
+    private String string(final int index) throws IOException {
+        if (index < 0 || index >= this.strings.length) {
+            throw new IOException("Invalid string table index: " + index + ".");
+        }
+        return this.strings[index];
+    }
+
+    /**
+     * Reads a count or length, which is written as an unsigned varint that must not exceed
+     * {@link Integer#MAX_VALUE}.
+     */
+    private int readCount() throws IOException {
+        final int count = readVarInt();
+        if (count < 0) {
+            throw new IOException("Invalid count in binary source code model: "
+                                      + Integer.toUnsignedString(count) + ".");
+        }
+        return count;
+    }
+
+    private static int unZigZag(final int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            final int b = this.in.read();
+            if (b < 0) {
+                throw new EOFException("Unexpected end of binary source code model.");
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in binary source code model.");
+    }
+
+    private byte[] readBytes(final int length) throws IOException {
+        final byte[] bytes = this.in.readNBytes(length);
+        if (bytes.length != length) {
+            throw new EOFException("Unexpected end of binary source code model.");
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,141 @@
+package com.hadi.clarpse.sourcemodel;
+
+import com.hadi.clarpse.reference.ComponentReference;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Writes {@link OOPSourceCodeModel}s in the compact binary format described in
+ * {@link BinaryModelFormat}, which is a fraction of the size of their JSON representation and
+ * much faster to read back with {@link BinaryModelReader}.
+ */
+public final class BinaryModelWriter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final OutputStream out;
+    private final Map<String, Integer> stringIndexes = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+
+    /**
+     * @param out Stream the model is written to, it is flushed but not closed after writing.
+     */
+    public BinaryModelWriter(final OutputStream out) {
+        this.out = new BufferedOutputStream(out, BUFFER_SIZE);
+    }
+
+    public void write(final OOPSourceCodeModel model) throws IOException {
+        final List<Component> components = model.components().collect(Collectors.toList());
+        components.forEach(this::indexStrings);
+        this.out.write(BinaryModelFormat.MAGIC);
+        writeVarInt(BinaryModelFormat.VERSION);
+        writeVarInt(this.strings.size());
+        for (final String string : this.strings) {
+            final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length);
+            this.out.write(bytes);
+        }
+        writeVarInt(components.size());
+        for (final Component component : components) {
+            writeComponent(component);
+        }
+        this.out.flush();
+    }
+
+    private void indexStrings(final Component cmp) {
+        index(cmp.componentName());
+        index(cmp.name());
+        index(cmp.value());
+        index(cmp.comment());
+        index(cmp.sourceFile());
+        index(cmp.codeFragment());
+        if (cmp.componentType() != null) {
+            index(cmp.componentType().name());
+        }
+        if (cmp.pkg() != null) {
+            index(cmp.pkg().name());
+            index(cmp.pkg().path());
+        }
+        cmp.children().forEach(this::index);
+        cmp.imports().forEach(this::index);
+        cmp.modifiers().forEach(this::index);
+        cmp.internalDependencies().forEach(ref -> index(ref.invokedComponent()));
+        cmp.externalDependencies().forEach(ref -> index(ref.invokedComponent()));
+    }
+
+    private void index(final String string) {
+        if (string != null && !this.stringIndexes.containsKey(string)) {
+            this.stringIndexes.put(string, this.strings.size());
+            this.strings.add(string);
+        }
+    }
+
+    private void writeComponent(final Component cmp) throws IOException {
+        writeNullableString(cmp.componentName());
+        writeNullableString(cmp.name());
+        writeNullableString(cmp.value());
+        writeNullableString(cmp.comment());
+        writeNullableString(cmp.sourceFile());
+        writeNullableString(cmp.codeFragment());
+        writeNullableString(cmp.componentType() == null ? null : cmp.componentType().name());
+        if (cmp.pkg() == null) {
+            writeVarInt(0);
+        } else {
+            writeVarInt(1);
+            writeNullableString(cmp.pkg().name());
+            writeString(cmp.pkg().path());
+        }
+        writeVarInt(zigZag(cmp.cyclo()));
+        writeVarInt(zigZag(cmp.codeHash()));
+        writeStrings(cmp.children());
+        writeStrings(cmp.imports());
+        writeStrings(cmp.modifiers());
+        writeVarInt(cmp.internalDependencies().size() + cmp.externalDependencies().size());
+        writeReferences(cmp.internalDependencies());
+        writeReferences(cmp.externalDependencies());
+    }
+
+    private void writeReferences(final Collection<ComponentReference> references) throws IOException {
+        for (final ComponentReference reference : references) {
+            writeVarInt(BinaryModelFormat.referenceTag(reference));
+            writeString(reference.invokedComponent());
+        }
+    }
+
+    private void writeStrings(final Collection<String> values) throws IOException {
+        writeVarInt(values.size());
+        for (final String value : values) {
+            writeString(value);
+        }
+    }
+
+    private void writeString(final String value) throws IOException {
+        writeVarInt(this.stringIndexes.get(value));
+    }
+
+    private void writeNullableString(final String value) throws IOException {
+        writeVarInt(value == null ? BinaryModelFormat.NULL_INDEX : this.stringIndexes.get(value) + 1);
+    }
+
+    private static int zigZag(final int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private void writeVarInt(final int value) throws IOException {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            this.out.write((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        this.out.write(remaining);
+    }
+}
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.hadi.clarpse.reference.ComponentReference;
 import com.hadi.clarpse.sourcemodel.OOPSourceModelConstants.ComponentType;
 import com.hadi.clarpse.sourcemodel.OOPSourceModelConstants.TypeReferences;
@@ -19,6 +20,7 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.function.Predicate;
 
 /**
  * Representation of the individual code level components (classes,
@@ -31,7 +33,7 @@ import java.util.Set;
 public final class Component implements Serializable {
 
     private static final Logger LOGGER = LogManager.getLogger(Component.class);
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
     @JsonInclude(Include.NON_EMPTY)
     private final List<String> children = new ArrayList<>();
     private String value;
@@ -43,15 +45,22 @@ public final class Component implements Serializable {
     @JsonInclude(Include.NON_EMPTY)
     private Set<String> imports = new HashSet<>();
     @JsonInclude(Include.NON_EMPTY)
+    @JsonDeserialize(as = LinkedHashSet.class)
     private Set<String> modifiers = new LinkedHashSet<>();
     private ComponentType type;
     @JsonIgnore
-    private Set<ComponentReference> internalReferences = new LinkedHashSet<>();
-    @JsonIgnore
-    private Set<ComponentReference> externalReferences = new LinkedHashSet<>();
+    private final ReferenceBuckets references = new ReferenceBuckets();
     private String componentName;
     private int codeHash;
     private String codeFragment;
+    /**
+     * Names derived from the package and component name, computed on first use and reset
+     * whenever either of them changes.
+     */
+    @JsonIgnore
+    private transient String uniqueName;
+    @JsonIgnore
+    private transient String parentUniqueName;
 
     public Component(final Component component) throws Exception {
         modifiers = component.modifiers();
@@ -82,13 +91,16 @@ public final class Component implements Serializable {
     }
 
     public String uniqueName() {
-        if (this.pkg != null && !this.pkg.ellipsisSeparatedPkgPath().isEmpty()) {
-            return this.pkg.ellipsisSeparatedPkgPath() + "." + componentName;
-        } else if (this.pkg != null && !this.pkg.name().isEmpty()) {
-            return this.pkg.name() + "." + componentName;
-        } else {
-            return this.componentName;
+        if (this.uniqueName == null) {
+            if (this.pkg != null && !this.pkg.ellipsisSeparatedPkgPath().isEmpty()) {
+                this.uniqueName = this.pkg.ellipsisSeparatedPkgPath() + "." + componentName;
+            } else if (this.pkg != null && !this.pkg.name().isEmpty()) {
+                this.uniqueName = this.pkg.name() + "." + componentName;
+            } else {
+                this.uniqueName = this.componentName;
+            }
         }
+        return this.uniqueName;
     }
 
     public int cyclo() {
@@ -109,44 +121,54 @@ public final class Component implements Serializable {
     }
 
     public void addImports(final String importStmt) {
-        imports.add(importStmt);
+        mutableImports().add(importStmt);
     }
 
     public String codeFragment() {
         return codeFragment;
     }
 
+    /**
+     * Returns an unmodifiable view of the internal references of this component followed by its
+     * external ones, each in insertion order.
+     */
     @JsonProperty("references")
     public Set<ComponentReference> references() {
-        final Set<ComponentReference> combined = new LinkedHashSet<>(internalReferences);
-        combined.addAll(externalReferences);
-        return combined;
+        return references.all();
     }
 
     @JsonProperty("references")
+    @JsonDeserialize(as = LinkedHashSet.class)
     private void setReferences(final Set<ComponentReference> refs) {
-        internalReferences = new LinkedHashSet<>();
-        externalReferences = new LinkedHashSet<>();
+        references.clear();
         if (refs != null) {
             refs.forEach(this::insertCmpRef);
         }
     }
 
+    /**
+     * Returns a view of the references of this component to components of the code base, in
+     * insertion order. References added to or removed from the view are added to or removed
+     * from this component.
+     */
     public Set<ComponentReference> internalDependencies() {
-        return internalReferences;
+        return references.internal();
     }
 
+    /**
+     * Returns a view of the references of this component to components outside of the code
+     * base, in insertion order. References added to or removed from the view are added to or
+     * removed from this component.
+     */
     public Set<ComponentReference> externalDependencies() {
-        return externalReferences;
+        return references.external();
     }
 
     public void insertCmpRef(final ComponentReference ref) {
-        if (ref.isExternal()) {
-            externalReferences.add(ref);
-        } else {
-            internalReferences.add(ref);
+        references.add(ref);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Inserted " + ref + " for " + this);
         }
-        LOGGER.debug("Inserted " + ref + " for " + this);
     }
 
     public Set<String> imports() {
@@ -162,17 +184,32 @@ public final class Component implements Serializable {
     }
 
     public void setExternalTypeReferences(final Set<ComponentReference> externalReferences) {
-        internalReferences = new LinkedHashSet<>();
-        this.externalReferences = new LinkedHashSet<>(externalReferences);
-        this.externalReferences.forEach(ref -> ref.setExternal(true));
+        setReferenceClassification(new LinkedHashSet<>(), externalReferences);
     }
 
     public void setReferenceClassification(final Set<ComponentReference> internalReferences,
                                            final Set<ComponentReference> externalReferences) {
         internalReferences.forEach(ref -> ref.setExternal(false));
         externalReferences.forEach(ref -> ref.setExternal(true));
-        this.internalReferences = internalReferences;
-        this.externalReferences = externalReferences;
+        references.clear();
+        internalReferences.forEach(references::add);
+        externalReferences.forEach(references::add);
+    }
+
+    /**
+     * Classifies the references of this component as internal when they match the given
+     * predicate and as external otherwise, without copying references whose classification
+     * did not change.
+     */
+    public void classifyReferences(final Predicate<ComponentReference> isInternal) {
+        references.classify(isInternal);
+    }
+
+    /**
+     * Removes all references of the given type from this component.
+     */
+    public void removeReferences(final TypeReferences type) {
+        references.remove(type);
     }
 
     public void setImports(final Set<String> currentImports) {
@@ -181,6 +218,7 @@ public final class Component implements Serializable {
 
     public void setComponentName(final String componentName) {
         this.componentName = componentName;
+        resetDerivedNames();
     }
 
     public Set<String> modifiers() {
@@ -189,7 +227,7 @@ public final class Component implements Serializable {
 
     public void insertAccessModifier(final String modifier) {
         if (OOPSourceModelConstants.getJavaAccessModifierMap().containsValue(modifier.toLowerCase(Locale.ROOT))) {
-            modifiers.add(modifier.toLowerCase(Locale.ROOT));
+            mutableModifiers().add(modifier.toLowerCase(Locale.ROOT));
         } else {
             throw new IllegalArgumentException(modifier + " is an invalid modifier!");
         }
@@ -201,6 +239,7 @@ public final class Component implements Serializable {
 
     public void setComponentType(final ComponentType componentType) {
         type = componentType;
+        this.parentUniqueName = null;
     }
 
     public Package pkg() {
@@ -209,6 +248,12 @@ public final class Component implements Serializable {
 
     public void setPkg(final Package pkg) {
         this.pkg = pkg;
+        resetDerivedNames();
+    }
+
+    private void resetDerivedNames() {
+        this.uniqueName = null;
+        this.parentUniqueName = null;
     }
 
     @Override
@@ -232,16 +277,24 @@ public final class Component implements Serializable {
     }
 
     public String parentUniqueName() {
-        final int lastOpeningBracket = uniqueName().indexOf("(");
+        if (this.parentUniqueName == null) {
+            this.parentUniqueName = computeParentUniqueName();
+        }
+        return this.parentUniqueName;
+    }
+
+    private String computeParentUniqueName() {
+        final String cmpUniqueName = uniqueName();
+        final int lastOpeningBracket = cmpUniqueName.indexOf("(");
         if (lastOpeningBracket == -1 || !type.isMethodComponent()) {
-            if (uniqueName().contains(".")) {
-                final int lastPeriod = uniqueName().lastIndexOf(".");
-                return uniqueName().substring(0, lastPeriod);
+            final int lastPeriod = cmpUniqueName.lastIndexOf(".");
+            if (lastPeriod != -1) {
+                return cmpUniqueName.substring(0, lastPeriod);
             } else {
-                throw new IllegalArgumentException("Cannot get parent of component: " + uniqueName());
+                throw new IllegalArgumentException("Cannot get parent of component: " + cmpUniqueName);
             }
         } else {
-            final String methodComponentName = uniqueName().substring(0, lastOpeningBracket);
+            final String methodComponentName = cmpUniqueName.substring(0, lastOpeningBracket);
             final int lastPeriod = methodComponentName.lastIndexOf(".");
             return methodComponentName.substring(0, lastPeriod);
         }
@@ -253,14 +306,12 @@ public final class Component implements Serializable {
         }
     }
 
+    /**
+     * Returns an unmodifiable view of the internal references of the given type followed by the
+     * external ones.
+     */
     public List<ComponentReference> references(final TypeReferences type) {
-        final List<ComponentReference> tmpReferences = new ArrayList<>();
-        for (final ComponentReference compReference : references()) {
-            if (type.getMatchingClass().isAssignableFrom(compReference.getClass())) {
-                tmpReferences.add(compReference);
-            }
-        }
-        return tmpReferences;
+        return references.ofType(type);
     }
 
     public void setName(final String name) {
@@ -276,11 +327,47 @@ public final class Component implements Serializable {
     }
 
     public void setAccessModifiers(final List<String> list) {
+        final Set<String> currentModifiers = mutableModifiers();
         for (final String modifier : list) {
-            modifiers.add(modifier.toLowerCase(Locale.ROOT));
+            currentModifiers.add(modifier.toLowerCase(Locale.ROOT));
         }
     }
 
+    /**
+     * Replaces the frequently repeated names, imports, modifiers and package of this component
+     * and its references with their shared instances from the given table.
+     */
+    void intern(final SymbolTable symbols) {
+        uniqueName = symbols.intern(uniqueName());
+        parentUniqueName = symbols.intern(parentUniqueName);
+        name = symbols.intern(name);
+        sourceFile = symbols.intern(sourceFile);
+        codeFragment = symbols.intern(codeFragment);
+        pkg = symbols.intern(pkg);
+        children.replaceAll(symbols::intern);
+        imports = symbols.intern(imports);
+        modifiers = symbols.intern(modifiers);
+        references.all().forEach(ref -> ref.internInvokedComponent(symbols::intern));
+    }
+
+    /**
+     * Interned sets are shared between components and can not be modified, they are copied
+     * before the first modification.
+     */
+    private Set<String> mutableImports() {
+        if (!(imports instanceof HashSet)) {
+            imports = new HashSet<>(imports);
+        }
+        return imports;
+    }
+
+    private Set<String> mutableModifiers() {
+        if (!(modifiers instanceof LinkedHashSet)) {
+            modifiers = new LinkedHashSet<>(modifiers);
+        }
+        return modifiers;
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (o == null || getClass() != o.getClass()) {
@@ -0,0 +1,63 @@
+package com.hadi.clarpse.sourcemodel;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Reads the JSON of {@link OOPSourceCodeModel}s, as written by {@link JsonModelWriter} or by
+ * Jackson for the whole model, one component at a time.
+ */
+public final class JsonModelReader {
+
+    private final InputStream in;
+
+    /**
+     * @param in Stream the model is read from, it is not closed after reading.
+     */
+    public JsonModelReader(final InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Reads the whole model into memory.
+     */
+    public OOPSourceCodeModel read() throws IOException {
+        final OOPSourceCodeModel model = new OOPSourceCodeModel();
+        read(model::insertComponent);
+        return model;
+    }
+
+    /**
+     * Passes each component of the model to the given consumer as soon as it was read, so
+     * components that are no longer needed can be released while the model is read.
+     */
+    public void read(final Consumer<Component> consumer) throws IOException {
+        try (JsonParser parser = JsonModelWriter.MAPPER.getFactory().createParser(this.in)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final JsonToken value = parser.nextToken();
+                if (JsonModelWriter.COMPONENTS_FIELD.equals(parser.currentName())) {
+                    expect(value, JsonToken.START_OBJECT);
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        expect(parser.nextToken(), JsonToken.START_OBJECT);
+                        consumer.accept(JsonModelWriter.MAPPER.readValue(parser, Component.class));
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    private static void expect(final JsonToken actual, final JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Malformed source code model JSON, expected " + expected
+                                      + " but found " + actual + ".");
+        }
+    }
+}
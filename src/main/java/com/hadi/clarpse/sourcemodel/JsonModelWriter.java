@@ -0,0 +1,56 @@
+package com.hadi.clarpse.sourcemodel;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes {@link OOPSourceCodeModel}s as JSON one component at a time, so the JSON of the whole
+ * model is never materialized in memory. The output has the same layout as the JSON Jackson
+ * produces for the whole model, and can be read back incrementally with {@link JsonModelReader}.
+ */
+public final class JsonModelWriter {
+
+    static final String COMPONENTS_FIELD = "components";
+    static final ObjectMapper MAPPER = new ObjectMapper()
+        .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private final OutputStream out;
+
+    /**
+     * @param out Stream the model is written to, it is flushed but not closed after writing.
+     */
+    public JsonModelWriter(final OutputStream out) {
+        this.out = out;
+    }
+
+    public void write(final OOPSourceCodeModel model) throws IOException {
+        write(model.components());
+    }
+
+    /**
+     * Writes the given components as a model, without requiring them to be collected in a
+     * model first.
+     */
+    public void write(final Stream<Component> components) throws IOException {
+        try (JsonGenerator generator = MAPPER.getFactory().createGenerator(this.out)) {
+            generator.writeStartObject();
+            generator.writeFieldName(COMPONENTS_FIELD);
+            generator.writeStartObject();
+            final Iterator<Component> it = components.iterator();
+            while (it.hasNext()) {
+                final Component component = it.next();
+                generator.writeFieldName(component.uniqueName());
+                MAPPER.writeValue(generator, component);
+            }
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+    }
+}
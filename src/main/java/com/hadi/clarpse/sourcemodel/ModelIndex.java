@@ -0,0 +1,151 @@
+package com.hadi.clarpse.sourcemodel;
+
+import com.hadi.clarpse.reference.ComponentReference;
+import com.hadi.clarpse.sourcemodel.OOPSourceModelConstants.ComponentType;
+import com.hadi.clarpse.sourcemodel.OOPSourceModelConstants.TypeReferences;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Indexes of the components of a {@link OOPSourceCodeModel}, answering queries such as which
+ * components reference a component, which components a package holds or which components
+ * implement an interface without scanning the model. All indexes are built at once when the
+ * index is created, the index is a snapshot of the model and has to be recreated after the
+ * model changed. Queries return unmodifiable lists, which are empty when nothing matches.
+ */
+public final class ModelIndex {
+
+    private final OOPSourceCodeModel model;
+    private final Map<String, List<Component>> referencing = new HashMap<>();
+    private final Map<TypeReferences, Map<String, List<Component>>> referencingByType =
+        new EnumMap<>(TypeReferences.class);
+    private final Map<String, List<Component>> packageComponents = new HashMap<>();
+    private final Map<ComponentType, List<Component>> typeComponents = new EnumMap<>(ComponentType.class);
+    private final Map<String, List<Component>> children = new HashMap<>();
+    private final Map<String, Component> parents = new HashMap<>();
+
+    public ModelIndex(final OOPSourceCodeModel model) {
+        this.model = model;
+        for (final TypeReferences type : TypeReferences.values()) {
+            this.referencingByType.put(type, new HashMap<>());
+        }
+        model.components().forEach(this::index);
+    }
+
+    private void index(final Component cmp) {
+        for (final ComponentReference ref : cmp.references()) {
+            final String invoked = ref.invokedComponent();
+            add(this.referencingByType.get(TypeReferences.of(ref)), invoked, cmp);
+            if (!alreadyReferencing(invoked, cmp)) {
+                add(this.referencing, invoked, cmp);
+            }
+        }
+        add(this.packageComponents, packageName(cmp), cmp);
+        if (cmp.componentType() != null) {
+            this.typeComponents.computeIfAbsent(cmp.componentType(), type -> new ArrayList<>()).add(cmp);
+        }
+        for (final String childName : cmp.children()) {
+            final Optional<Component> child = this.model.getComponent(childName);
+            if (child.isPresent()) {
+                add(this.children, cmp.uniqueName(), child.get());
+                this.parents.put(child.get().uniqueName(), cmp);
+            }
+        }
+    }
+
+    /**
+     * Components are indexed one after the other, so a component that references the same
+     * component through several reference types was indexed last.
+     */
+    private boolean alreadyReferencing(final String invoked, final Component cmp) {
+        final List<Component> cmps = this.referencing.get(invoked);
+        return cmps != null && cmps.get(cmps.size() - 1) == cmp;
+    }
+
+    private static void add(final Map<String, List<Component>> index, final String key, final Component cmp) {
+        index.computeIfAbsent(key, k -> new ArrayList<>()).add(cmp);
+    }
+
+    private static String packageName(final Component cmp) {
+        if (cmp.pkg() == null) {
+            return "";
+        } else if (!cmp.pkg().ellipsisSeparatedPkgPath().isEmpty()) {
+            return cmp.pkg().ellipsisSeparatedPkgPath();
+        } else {
+            return cmp.pkg().name();
+        }
+    }
+
+    private static List<Component> result(final List<Component> cmps) {
+        return cmps == null ? Collections.emptyList() : Collections.unmodifiableList(cmps);
+    }
+
+    public OOPSourceCodeModel model() {
+        return this.model;
+    }
+
+    /**
+     * Returns the components that reference the component with the given unique name.
+     */
+    public List<Component> referencing(final String uniqueName) {
+        return result(this.referencing.get(uniqueName));
+    }
+
+    /**
+     * Returns the components that reference the component with the given unique name through
+     * a reference of the given type.
+     */
+    public List<Component> referencing(final String uniqueName, final TypeReferences type) {
+        return result(this.referencingByType.get(type).get(uniqueName));
+    }
+
+    /**
+     * Returns the components that implement the interface with the given unique name.
+     */
+    public List<Component> implementors(final String uniqueName) {
+        return referencing(uniqueName, TypeReferences.IMPLEMENTATION);
+    }
+
+    /**
+     * Returns the components that extend the component with the given unique name.
+     */
+    public List<Component> subtypes(final String uniqueName) {
+        return referencing(uniqueName, TypeReferences.EXTENSION);
+    }
+
+    /**
+     * Returns the components of the given package, which is given the way it prefixes the
+     * unique names of its components, e.g. {@code com.foo}. Components without a package are
+     * returned for an empty package.
+     */
+    public List<Component> packageComponents(final String pkg) {
+        return result(this.packageComponents.get(pkg));
+    }
+
+    /**
+     * Returns the components of the given type.
+     */
+    public List<Component> components(final ComponentType type) {
+        return result(this.typeComponents.get(type));
+    }
+
+    /**
+     * Returns the child components of the component with the given unique name.
+     */
+    public List<Component> children(final String uniqueName) {
+        return result(this.children.get(uniqueName));
+    }
+
+    /**
+     * Returns the component that lists the component with the given unique name as its child.
+     */
+    public Optional<Component> parent(final String uniqueName) {
+        return Optional.ofNullable(this.parents.get(uniqueName));
+    }
+}
@@ -1,11 +1,16 @@
 package com.hadi.clarpse.sourcemodel;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Stream;
@@ -22,10 +27,25 @@ public class OOPSourceCodeModel implements Serializable {
     private static final long serialVersionUID = 1L;
     private static final Logger LOGGER = LogManager.getLogger(OOPSourceCodeModel.class);
     private Map<String, Component> components = new HashMap<>();
+    @JsonIgnore
+    private transient SymbolTable symbols;
+    /**
+     * Number of components removed since the symbol table was last rebuilt.
+     */
+    @JsonIgnore
+    private transient int removedSinceRebuild;
 
     public OOPSourceCodeModel() {
     }
 
+    /**
+     * Creates an empty model interning its components in the given table. Components of models
+     * sharing the table are not interned again when the models are merged.
+     */
+    public OOPSourceCodeModel(final SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
     public OOPSourceCodeModel(Map<String, Component> components) {
         this.components = new HashMap<String, Component>(components);
     }
@@ -34,21 +54,53 @@ public class OOPSourceCodeModel implements Serializable {
         return components;
     }
 
+    /**
+     * Inserts the components of the given model, which are only interned if the given model does
+     * not share the symbol table of this model.
+     */
     public void merge(final OOPSourceCodeModel sourceModel) {
-        insertComponents(sourceModel.getComponents());
+        if (sourceModel.symbols != null && sourceModel.symbols == this.symbols) {
+            sourceModel.getComponents().values().forEach(this::insertInternedComponent);
+        } else {
+            insertComponents(sourceModel.getComponents());
+        }
     }
 
     public int size() {
         return components.size();
     }
 
+    /**
+     * Inserts the given component, its names, imports, modifiers and package are interned in
+     * the symbol table of this model.
+     */
     public void insertComponent(final Component component) {
+        component.intern(symbols());
+        insertInternedComponent(component);
+    }
+
+    /**
+     * Inserts the given component without interning it, so that it keeps sharing the values of
+     * the table it was interned in, such as the table of another model it belongs to.
+     */
+    public void insertInternedComponent(final Component component) {
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("Inserted component {}.", component);
         }
         components.put(component.uniqueName(), component);
     }
 
+    /**
+     * Returns the table the components of this model share their frequently repeated values
+     * through.
+     */
+    public SymbolTable symbols() {
+        if (this.symbols == null) {
+            this.symbols = new SymbolTable();
+        }
+        return this.symbols;
+    }
+
     public boolean containsComponent(final String componentName) {
         return getComponents().containsKey(componentName);
     }
@@ -64,12 +116,50 @@ public class OOPSourceCodeModel implements Serializable {
     }
 
     public void removeComponent(String cmpUniqueName) {
-        this.components.remove(cmpUniqueName);
+        if (this.components.remove(cmpUniqueName) != null) {
+            componentsRemoved(1);
+        }
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("Removed component {}.", cmpUniqueName);
         }
     }
 
+    /**
+     * Removes all components declared in the given source files.
+     *
+     * @return the removed components.
+     */
+    public List<Component> removeFileComponents(final Collection<String> sourceFilePaths) {
+        final List<Component> removed = new ArrayList<>();
+        final Iterator<Component> it = this.components.values().iterator();
+        while (it.hasNext()) {
+            final Component cmp = it.next();
+            if (sourceFilePaths.contains(cmp.sourceFile())) {
+                it.remove();
+                removed.add(cmp);
+            }
+        }
+        LOGGER.debug("Removed {} components declared in {} files.", removed.size(),
+                     sourceFilePaths.size());
+        componentsRemoved(removed.size());
+        return removed;
+    }
+
+    /**
+     * The symbol table keeps the values of removed components, so it is rebuilt from the
+     * remaining components once more components were removed than remain. This keeps the table
+     * of a model that is updated over and over from growing without bound.
+     */
+    private void componentsRemoved(final int count) {
+        this.removedSinceRebuild += count;
+        if (this.symbols != null && this.removedSinceRebuild > this.components.size()) {
+            LOGGER.debug("Rebuilding symbol table of {} components.", this.components.size());
+            this.symbols = new SymbolTable();
+            this.components.values().forEach(cmp -> cmp.intern(this.symbols));
+            this.removedSinceRebuild = 0;
+        }
+    }
+
     public Stream<Component> components() {
         return components.values().stream();
     }
@@ -253,6 +253,7 @@ public final class OOPSourceModelConstants {
         EXTENSION(TypeExtensionReference.class),
         IMPLEMENTATION(TypeImplementationReference.class);
 
+        private static final TypeReferences[] VALUES = values();
         private Class<? extends ComponentReference> matchingClass = null;
 
         TypeReferences(final Class<? extends ComponentReference> matchingClass) {
@@ -262,6 +263,18 @@ public final class OOPSourceModelConstants {
         public Class<? extends ComponentReference> getMatchingClass() {
             return matchingClass;
         }
+
+        /**
+         * Returns the type of the given reference.
+         */
+        public static TypeReferences of(final ComponentReference reference) {
+            for (final TypeReferences type : VALUES) {
+                if (type.matchingClass.isInstance(reference)) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported reference type: " + reference.getClass() + ".");
+        }
     }
 
     public enum ComponentType implements Serializable {
@@ -1,6 +1,8 @@
 package com.hadi.clarpse.sourcemodel;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import org.apache.commons.lang3.StringUtils;
 
 import java.io.Serializable;
@@ -18,7 +20,9 @@ public class Package implements Serializable {
     private final String packagePath;
     private final String ellipsisSeparatedPkg;
 
-    public Package(final String packageName, final String packagePath) {
+    @JsonCreator
+    public Package(@JsonProperty("packageName") final String packageName,
+                   @JsonProperty("packagePath") final String packagePath) {
         this.packageName = packageName;
         this.packagePath = packagePath;
         this.ellipsisSeparatedPkg = StringUtils.strip(packagePath.replaceAll("/", "."), ".");
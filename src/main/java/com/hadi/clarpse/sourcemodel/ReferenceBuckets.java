@@ -0,0 +1,319 @@
+package com.hadi.clarpse.sourcemodel;
+
+import com.hadi.clarpse.reference.ComponentReference;
+import com.hadi.clarpse.sourcemodel.OOPSourceModelConstants.TypeReferences;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * References of a component, split into internal and external references that each keep their
+ * insertion order, and indexed by their {@link TypeReferences type}. Iterating over all references
+ * returns the internal ones followed by the external ones, the references of a type are returned
+ * in the same relative order. Sets and lists are only allocated once they hold a reference.
+ * <p>
+ * The views returned by this class read through to the references, so iterating over or
+ * filtering references does not copy them. Views of the internal and external references write
+ * through as well, all other views are unmodifiable.
+ */
+final class ReferenceBuckets implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final int INTERNAL = 0;
+    private static final int EXTERNAL = 1;
+    private static final int[] ALL = {INTERNAL, EXTERNAL};
+    private static final TypeReferences[] TYPES = TypeReferences.values();
+
+    /**
+     * Internal and external references, each in insertion order.
+     */
+    private LinkedHashSet<ComponentReference>[] classified;
+    /**
+     * Internal references of each type at even indices, external ones at odd indices, in the
+     * order of their classified set.
+     */
+    private ArrayList<ComponentReference>[] typed;
+
+    /**
+     * Inserts the given reference according to its classification, unless an equal reference
+     * was inserted already.
+     */
+    void add(final ComponentReference reference) {
+        add(reference, reference.isExternal() ? EXTERNAL : INTERNAL);
+    }
+
+    void clear() {
+        this.classified = null;
+        this.typed = null;
+    }
+
+    /**
+     * Removes all references of the given type.
+     */
+    void remove(final TypeReferences type) {
+        if (this.classified == null) {
+            return;
+        }
+        for (final int classification : ALL) {
+            final int index = typedIndex(type, classification);
+            if (this.typed[index] != null) {
+                this.typed[index].forEach(this.classified[classification]::remove);
+                this.typed[index] = null;
+            }
+        }
+    }
+
+    /**
+     * Marks references matching the given predicate as internal and all others as external,
+     * only reordering references when a classification changed.
+     */
+    void classify(final Predicate<ComponentReference> isInternal) {
+        if (this.classified == null) {
+            return;
+        }
+        if (!classified(INTERNAL, true, isInternal) || !classified(EXTERNAL, false, isInternal)) {
+            final List<ComponentReference> references = new ArrayList<>(all());
+            clear();
+            references.forEach(reference -> add(reference, isInternal.test(reference) ? INTERNAL : EXTERNAL));
+        }
+        markExternal(INTERNAL, false);
+        markExternal(EXTERNAL, true);
+    }
+
+    /**
+     * Returns a view of all internal references followed by all external ones.
+     */
+    Set<ComponentReference> all() {
+        return new ClassifiedSet(ALL, false);
+    }
+
+    Set<ComponentReference> internal() {
+        return new ClassifiedSet(new int[]{INTERNAL}, true);
+    }
+
+    Set<ComponentReference> external() {
+        return new ClassifiedSet(new int[]{EXTERNAL}, true);
+    }
+
+    /**
+     * Returns a view of the internal references of the given type followed by the external ones.
+     */
+    List<ComponentReference> ofType(final TypeReferences type) {
+        return new TypedList(typedIndex(type, INTERNAL));
+    }
+
+    private boolean add(final ComponentReference reference, final int classification) {
+        if (contains(reference)) {
+            return false;
+        }
+        createClassified(classification).add(reference);
+        createTyped(typedIndex(TypeReferences.of(reference), classification)).add(reference);
+        return true;
+    }
+
+    private boolean contains(final Object reference) {
+        return this.classified != null
+            && ((this.classified[INTERNAL] != null && this.classified[INTERNAL].contains(reference))
+                || (this.classified[EXTERNAL] != null && this.classified[EXTERNAL].contains(reference)));
+    }
+
+    private boolean classified(final int classification, final boolean internal,
+                               final Predicate<ComponentReference> isInternal) {
+        final Set<ComponentReference> references = this.classified[classification];
+        if (references != null) {
+            for (final ComponentReference reference : references) {
+                if (isInternal.test(reference) != internal) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void markExternal(final int classification, final boolean external) {
+        if (this.classified != null && this.classified[classification] != null) {
+            this.classified[classification].forEach(reference -> reference.setExternal(external));
+        }
+    }
+
+    private static int typedIndex(final TypeReferences type, final int classification) {
+        return 2 * type.ordinal() + classification;
+    }
+
+    private Set<ComponentReference> classified(final int classification) {
+        return this.classified == null ? null : this.classified[classification];
+    }
+
+    private List<ComponentReference> typed(final int index) {
+        return this.typed == null ? null : this.typed[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    private LinkedHashSet<ComponentReference> createClassified(final int classification) {
+        if (this.classified == null) {
+            this.classified = (LinkedHashSet<ComponentReference>[]) new LinkedHashSet<?>[ALL.length];
+            this.typed = (ArrayList<ComponentReference>[]) new ArrayList<?>[ALL.length * TYPES.length];
+        }
+        if (this.classified[classification] == null) {
+            this.classified[classification] = new LinkedHashSet<>();
+        }
+        return this.classified[classification];
+    }
+
+    private ArrayList<ComponentReference> createTyped(final int index) {
+        if (this.typed[index] == null) {
+            this.typed[index] = new ArrayList<>(1);
+        }
+        return this.typed[index];
+    }
+
+    /**
+     * Iterates over the references of the given classifications, in the given order.
+     */
+    private final class ClassifiedIterator implements Iterator<ComponentReference> {
+
+        private final int[] classifications;
+        private final boolean modifiable;
+        private int position = -1;
+        private Iterator<ComponentReference> current;
+        private Iterator<ComponentReference> lastIterator;
+        private int lastClassification;
+        private ComponentReference last;
+
+        ClassifiedIterator(final int[] classifications, final boolean modifiable) {
+            this.classifications = classifications;
+            this.modifiable = modifiable;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (this.current == null || !this.current.hasNext()) {
+                if (++this.position >= this.classifications.length) {
+                    return false;
+                }
+                final Set<ComponentReference> references = classified(this.classifications[this.position]);
+                this.current = references == null ? null : references.iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public ComponentReference next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            this.lastIterator = this.current;
+            this.lastClassification = this.classifications[this.position];
+            this.last = this.current.next();
+            return this.last;
+        }
+
+        @Override
+        public void remove() {
+            if (!this.modifiable) {
+                throw new UnsupportedOperationException();
+            }
+            if (this.last == null) {
+                throw new IllegalStateException();
+            }
+            this.lastIterator.remove();
+            typed(typedIndex(TypeReferences.of(this.last), this.lastClassification)).remove(this.last);
+            this.last = null;
+        }
+    }
+
+    private final class ClassifiedSet extends AbstractSet<ComponentReference> {
+
+        private final int[] classifications;
+        private final boolean modifiable;
+
+        ClassifiedSet(final int[] classifications, final boolean modifiable) {
+            this.classifications = classifications;
+            this.modifiable = modifiable;
+        }
+
+        @Override
+        public Iterator<ComponentReference> iterator() {
+            return new ClassifiedIterator(this.classifications, this.modifiable);
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (final int classification : this.classifications) {
+                final Set<ComponentReference> references = classified(classification);
+                size += references == null ? 0 : references.size();
+            }
+            return size;
+        }
+
+        @Override
+        public boolean contains(final Object o) {
+            for (final int classification : this.classifications) {
+                final Set<ComponentReference> references = classified(classification);
+                if (references != null && references.contains(o)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean add(final ComponentReference reference) {
+            if (!this.modifiable) {
+                throw new UnsupportedOperationException();
+            }
+            return ReferenceBuckets.this.add(reference, this.classifications[0]);
+        }
+
+        @Override
+        public boolean remove(final Object o) {
+            if (!this.modifiable) {
+                throw new UnsupportedOperationException();
+            }
+            final Set<ComponentReference> references = classified(this.classifications[0]);
+            if (references == null || !references.remove(o)) {
+                return false;
+            }
+            typed(typedIndex(TypeReferences.of((ComponentReference) o), this.classifications[0])).remove(o);
+            return true;
+        }
+    }
+
+    /**
+     * Indexes into the internal references of a type followed by its external ones.
+     */
+    private final class TypedList extends AbstractList<ComponentReference> implements RandomAccess {
+
+        private final int internalIndex;
+
+        TypedList(final int internalIndex) {
+            this.internalIndex = internalIndex;
+        }
+
+        @Override
+        public ComponentReference get(final int index) {
+            Objects.checkIndex(index, size());
+            final List<ComponentReference> internal = typed(this.internalIndex);
+            final int internalSize = internal == null ? 0 : internal.size();
+            return index < internalSize ? internal.get(index) : typed(this.internalIndex + 1).get(index - internalSize);
+        }
+
+        @Override
+        public int size() {
+            final List<ComponentReference> internal = typed(this.internalIndex);
+            final List<ComponentReference> external = typed(this.internalIndex + 1);
+            return (internal == null ? 0 : internal.size()) + (external == null ? 0 : external.size());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.hadi.clarpse.sourcemodel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Model wide table of the names, import statements, modifiers and packages of components,
+ * mapping each distinct value to a single shared instance. Components of a code base repeat
+ * the same type names, import statements and packages thousands of times, so interning them
+ * keeps the heap usage of large models down. Interned sets are unmodifiable, components copy
+ * them before modifying them. Instances are thread safe, so that the per-file models of a
+ * compilation can share the table of the model they are merged into while files are parsed
+ * concurrently.
+ */
+public final class SymbolTable {
+
+    private final Map<String, String> strings = new ConcurrentHashMap<>();
+    private final Map<List<String>, Set<String>> stringSets = new ConcurrentHashMap<>();
+    private final Map<Package, Package> packages = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the shared instance of the given string, or null if the string is null.
+     */
+    public String intern(final String value) {
+        if (value == null) {
+            return null;
+        }
+        final String existing = this.strings.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    /**
+     * Returns a shared, unmodifiable set equal to the given set, whose elements are interned as
+     * well. Iteration order of the given set is retained.
+     */
+    public Set<String> intern(final Set<String> values) {
+        final List<String> key = new ArrayList<>(values);
+        Set<String> interned = this.stringSets.get(key);
+        if (interned == null) {
+            key.replaceAll(this::intern);
+            interned = Collections.unmodifiableSet(new LinkedHashSet<>(key));
+            final Set<String> existing = this.stringSets.putIfAbsent(key, interned);
+            if (existing != null) {
+                interned = existing;
+            }
+        }
+        return interned;
+    }
+
+    /**
+     * Returns the shared instance of the given package, or null if the package is null.
+     */
+    public Package intern(final Package pkg) {
+        if (pkg == null) {
+            return null;
+        }
+        final Package existing = this.packages.putIfAbsent(pkg, pkg);
+        return existing != null ? existing : pkg;
+    }
+
+    /**
+     * Returns the number of distinct strings in this table.
+     */
+    public int size() {
+        return this.strings.size();
+    }
+}
@@ -0,0 +1,52 @@
+package com.hadi.test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hadi.clarpse.compiler.AstMemoryBudget;
+import com.hadi.clarpse.compiler.ClarpseProject;
+import com.hadi.clarpse.compiler.Lang;
+import com.hadi.clarpse.compiler.ProjectFile;
+import com.hadi.clarpse.compiler.ProjectFiles;
+import com.hadi.clarpse.sourcemodel.OOPSourceCodeModel;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AstMemoryBudgetTest {
+
+    private static String modelJson(final String resource, final Lang lang, final AstMemoryBudget budget)
+        throws Exception {
+        return modelJson(new ClarpseProject(
+            Objects.requireNonNull(AstMemoryBudgetTest.class.getResource(resource)).getFile(), lang), budget);
+    }
+
+    private static String modelJson(final ClarpseProject project, final AstMemoryBudget budget) throws Exception {
+        project.setAstMemoryBudget(budget);
+        final OOPSourceCodeModel model = project.result().model();
+        assertTrue(model.size() > 0);
+        return new ObjectMapper().writeValueAsString(model);
+    }
+
+    @Test
+    public void javaModelDoesNotDependOnBudgetTest() throws Exception {
+        assertEquals(modelJson("/clarpse.zip", Lang.JAVA, AstMemoryBudget.UNLIMITED),
+                     modelJson("/clarpse.zip", Lang.JAVA, new AstMemoryBudget(0)));
+    }
+
+    @Test
+    public void es6ModelDoesNotDependOnBudgetTest() throws Exception {
+        final ProjectFiles projectFiles = new ProjectFiles();
+        projectFiles.insertFile(new ProjectFile("/web/samples.js", IOUtils.toString(Objects.requireNonNull(
+            AstMemoryBudgetTest.class.getResourceAsStream("/sample-es6.txt")), StandardCharsets.UTF_8)));
+        projectFiles.insertFile(new ProjectFile("/web/shapes/polygon.js", "export class Polygon { area() {} }"));
+        projectFiles.insertFile(new ProjectFile("/web/types/cake.js",
+            "import { Polygon } from '../shapes/polygon';\n class Cake extends Polygon { "
+                + "constructor() { Polygon.test(); } }"));
+        assertEquals(modelJson(new ClarpseProject(projectFiles, Lang.JAVASCRIPT), AstMemoryBudget.UNLIMITED),
+                     modelJson(new ClarpseProject(projectFiles, Lang.JAVASCRIPT), new AstMemoryBudget(0)));
+    }
+}
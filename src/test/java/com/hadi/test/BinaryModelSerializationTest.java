@@ -0,0 +1,100 @@
+package com.hadi.test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hadi.clarpse.sourcemodel.BinaryModelReader;
+import com.hadi.clarpse.sourcemodel.BinaryModelWriter;
+import com.hadi.clarpse.sourcemodel.Component;
+import com.hadi.clarpse.sourcemodel.OOPSourceCodeModel;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BinaryModelSerializationTest {
+
+    /**
+     * Returns a model header with the magic bytes and version, followed by the given bytes.
+     */
+    private static byte[] model(final int... bytes) {
+        final byte[] model = new byte[4 + 1 + bytes.length];
+        System.arraycopy("CLPM".getBytes(), 0, model, 0, 4);
+        model[4] = 1;
+        for (int i = 0; i < bytes.length; i++) {
+            model[5 + i] = (byte) bytes[i];
+        }
+        return model;
+    }
+
+    private static OOPSourceCodeModel roundTrip(final OOPSourceCodeModel model) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryModelWriter(out).write(model);
+        return new BinaryModelReader(new ByteArrayInputStream(out.toByteArray())).read();
+    }
+
+    @Test
+    public void testRoundTripPreservesComponents() throws Exception {
+        final OOPSourceCodeModel model = ClarpseTestUtil.serializationModel();
+        final OOPSourceCodeModel read = roundTrip(model);
+        final ObjectMapper mapper = new ObjectMapper();
+        assertEquals(mapper.convertValue(model, Map.class), mapper.convertValue(read, Map.class));
+    }
+
+    @Test
+    public void testRoundTripPreservesReferenceClassification() throws Exception {
+        final OOPSourceCodeModel model = ClarpseTestUtil.serializationModel();
+        final Component cake = roundTrip(model).getComponent("test.Cake").get();
+        assertEquals(new ArrayList<>(model.getComponent("test.Cake").get().internalDependencies()),
+                     new ArrayList<>(cake.internalDependencies()));
+        assertEquals(new ArrayList<>(model.getComponent("test.Cake").get().externalDependencies()),
+                     new ArrayList<>(cake.externalDependencies()));
+        assertTrue(cake.externalDependencies().stream().allMatch(ref -> ref.isExternal()));
+        assertEquals("test.Pie", cake.internalDependencies().iterator().next().invokedComponent());
+    }
+
+    @Test
+    public void testBinaryModelIsSmallerThanJson() throws Exception {
+        final OOPSourceCodeModel model = ClarpseTestUtil.serializationModel();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryModelWriter(out).write(model);
+        assertTrue(out.size() < new ObjectMapper().writeValueAsBytes(model).length / 2);
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadingInvalidDataFails() throws Exception {
+        new BinaryModelReader(new ByteArrayInputStream("{\"components\":{}}".getBytes())).read();
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadingNegativeCountFails() throws Exception {
+        new BinaryModelReader(new ByteArrayInputStream(model(0xFF, 0xFF, 0xFF, 0xFF, 0x0F))).read();
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadingHugeCountOfTruncatedModelFails() throws Exception {
+        new BinaryModelReader(new ByteArrayInputStream(model(0xFE, 0xFF, 0xFF, 0xFF, 0x07, 1, 'a'))).read();
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadingUnknownReferenceTagFails() throws Exception {
+        // One string, then one component named after it holding a reference with an unknown tag.
+        new BinaryModelReader(new ByteArrayInputStream(
+            model(1, 1, 'a', 1, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1, 0x7E, 0))).read();
+    }
+
+    @Test
+    public void testReaderDoesNotReadPastTheModel() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryModelWriter(out).write(ClarpseTestUtil.serializationModel());
+        out.write("trailer".getBytes());
+        final InputStream in = new ByteArrayInputStream(out.toByteArray());
+        new BinaryModelReader(in).read();
+        assertEquals("trailer", new String(in.readAllBytes()));
+    }
+}
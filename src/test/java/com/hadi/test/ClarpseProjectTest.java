@@ -1,20 +1,31 @@
 package com.hadi.test;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hadi.clarpse.compiler.ClarpseProject;
 import com.hadi.clarpse.compiler.CompileException;
+import com.hadi.clarpse.compiler.CompileResult;
 import com.hadi.clarpse.compiler.Lang;
 import com.hadi.clarpse.compiler.ProjectFile;
 import com.hadi.clarpse.compiler.ProjectFiles;
+import com.hadi.clarpse.reference.ComponentReference;
+import com.hadi.clarpse.sourcemodel.OOPSourceCodeModel;
+import com.hadi.clarpse.sourcemodel.OOPSourceModelConstants;
+import org.apache.commons.io.FileUtils;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 
+import static com.hadi.test.ClarpseTestUtil.polyglotProjectFiles;
 import static com.hadi.test.ClarpseTestUtil.unzipArchive;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -30,4 +41,186 @@ public class ClarpseProjectTest {
         ClarpseProject cp = new ClarpseProject(projectFiles, Lang.JAVA);
         assertEquals(0, cp.result().model().size());
     }
+
+    @Test
+    public void testUpdateReclassifiesReferencesToRemovedJavaComponents() throws Exception {
+        final ProjectFiles projectFiles = new ProjectFiles();
+        projectFiles.insertFile(new ProjectFile("/src/test/Cake.java",
+            "package test; public class Cake { }"));
+        projectFiles.insertFile(new ProjectFile("/src/test/Bakery.java",
+            "package test; public class Bakery { private Cake cake; }"));
+        final ClarpseProject project = new ClarpseProject(projectFiles, Lang.JAVA);
+        assertFalse(project.result().model().getComponent("test.Bakery").get()
+                        .internalDependencies().isEmpty());
+        final OOPSourceCodeModel model = project.update(
+            Collections.singletonList(new ProjectFile("/src/test/Cake.java",
+                "package test; public class Pie { }")), Collections.emptyList()).model();
+        assertTrue(model.containsComponent("test.Pie"));
+        assertFalse(model.containsComponent("test.Cake"));
+        assertTrue(model.getComponent("test.Bakery").get().internalDependencies().isEmpty());
+        assertEquals("test.Cake", model.getComponent("test.Bakery").get().externalDependencies()
+            .iterator().next().invokedComponent());
+    }
+
+    @Test
+    public void testUpdateReparsesCallersOfMethodsMovedToSupertypes() throws Exception {
+        final ProjectFiles projectFiles = new ProjectFiles();
+        projectFiles.insertFile(new ProjectFile("/test/Pie.java", "package test; public class Pie { }"));
+        projectFiles.insertFile(new ProjectFile("/test/Cake.java",
+            "package test; public class Cake extends Pie { public int bake() { return 1; } }"));
+        projectFiles.insertFile(new ProjectFile("/test/Bakery.java",
+            "package test; public class Bakery { int open(Cake cake) { return cake.bake(); } }"));
+        final ClarpseProject project = new ClarpseProject(projectFiles, Lang.JAVA);
+        project.result();
+        final OOPSourceCodeModel model = project.update(List.of(
+            new ProjectFile("/test/Pie.java", "package test; public class Pie { public int bake() { return 1; } }"),
+            new ProjectFile("/test/Cake.java", "package test; public class Cake extends Pie { }")),
+            Collections.emptyList()).model();
+        final ObjectMapper mapper = new ObjectMapper();
+        assertEquals(mapper.valueToTree(new ClarpseProject(projectFiles, Lang.JAVA).result().model()),
+                     mapper.valueToTree(model));
+    }
+
+    @Test
+    public void testUpdateReparsesUsersOfSubtypesOfChangedTypes() throws Exception {
+        final ProjectFiles projectFiles = new ProjectFiles();
+        projectFiles.insertFile(new ProjectFile("/test/Pie.java", "package test; public class Pie { }"));
+        projectFiles.insertFile(new ProjectFile("/test/Cake.java", "package test; public class Cake extends Pie { }"));
+        projectFiles.insertFile(new ProjectFile("/test/Bakery.java",
+            "package test; public class Bakery { void open(Cake cake) { cake.slice(); } }"));
+        final ClarpseProject project = new ClarpseProject(projectFiles, Lang.JAVA);
+        project.result();
+        final OOPSourceCodeModel model = project.update(Collections.singletonList(new ProjectFile(
+            "/test/Pie.java", "package test; public class Pie { public void slice() { } }")),
+            Collections.emptyList()).model();
+        final ObjectMapper mapper = new ObjectMapper();
+        assertEquals(mapper.valueToTree(new ClarpseProject(projectFiles, Lang.JAVA).result().model()),
+                     mapper.valueToTree(model));
+    }
+
+    @Test
+    public void testUpdateRemovesComponentsOfDeletedFiles() throws Exception {
+        final ProjectFiles projectFiles = new ProjectFiles();
+        projectFiles.insertFile(new ProjectFile("/src/test/Cake.java",
+            "package test; public class Cake { }"));
+        projectFiles.insertFile(new ProjectFile("/src/test/Bakery.java",
+            "package test; public class Bakery { }"));
+        final ClarpseProject project = new ClarpseProject(projectFiles, Lang.JAVA);
+        project.result();
+        final OOPSourceCodeModel model = project.update(
+            Collections.emptyList(), Collections.singletonList("/src/test/Cake.java")).model();
+        assertFalse(model.containsComponent("test.Cake"));
+        assertTrue(model.containsComponent("test.Bakery"));
+        assertEquals(1, projectFiles.size());
+    }
+
+    @Test
+    public void testUpdateResolvesGoInterfacesOfStructMethodsAddedInOtherFiles() throws Exception {
+        final ProjectFiles projectFiles = new ProjectFiles();
+        projectFiles.insertFile(new ProjectFile("/go.mod", "module github.com/test"));
+        projectFiles.insertFile(new ProjectFile("/bakery/types.go",
+            "package bakery\n type Cake struct {}\n type Baker interface {\n Bake() }"));
+        projectFiles.insertFile(new ProjectFile("/bakery/cake.go", "package bakery\n"));
+        final ClarpseProject project = new ClarpseProject(projectFiles, Lang.GOLANG);
+        assertTrue(project.result().model().getComponent("bakery.Cake").get()
+                       .references(OOPSourceModelConstants.TypeReferences.IMPLEMENTATION).isEmpty());
+        final OOPSourceCodeModel model = project.update(
+            Collections.singletonList(new ProjectFile("/bakery/cake.go",
+                "package bakery\n func (c Cake) Bake() {}")), Collections.emptyList()).model();
+        assertTrue(model.getComponent("bakery.Cake").get().children()
+                       .contains("bakery.Cake.Bake()"));
+        final List<ComponentReference> implemented = model.getComponent("bakery.Cake").get()
+            .references(OOPSourceModelConstants.TypeReferences.IMPLEMENTATION);
+        assertEquals(1, implemented.size());
+        assertEquals("bakery.Baker", implemented.get(0).invokedComponent());
+    }
+
+    @Test
+    public void testUpdateResolvesGoImportsOfRenamedPackagesOfSourceDirFiles() throws Exception {
+        final File dir = Files.createTempDirectory("clarpse").toFile();
+        FileUtils.writeStringToFile(new File(dir, "go.mod"), "module github.com/test", StandardCharsets.UTF_8);
+        final File pieFile = new File(dir, "bakery/pie.go");
+        FileUtils.writeStringToFile(pieFile, "package bakery\n type Pie struct {}", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(dir, "shop/shop.go"),
+            "package shop\n import \"github.com/test/bakery\"\n type Shop struct {\n pie pastry.Pie }",
+                                    StandardCharsets.UTF_8);
+        final ClarpseProject project = new ClarpseProject(new ProjectFiles(dir.getPath(), true), Lang.GOLANG);
+        project.result();
+        final String pieCode = "package pastry\n type Pie struct {}";
+        FileUtils.writeStringToFile(pieFile, pieCode, StandardCharsets.UTF_8);
+        final OOPSourceCodeModel model = project.update(
+            Collections.singletonList(new ProjectFile(pieFile.getPath(), pieCode)),
+            Collections.emptyList()).model();
+        assertEquals(List.of("bakery.Pie"), referencedComponents(model, "shop.Shop"));
+        FileUtils.deleteQuietly(dir);
+    }
+
+    @Test
+    public void testPolyglotProjectMergesModelsOfAllLanguages() throws Exception {
+        final ProjectFiles projectFiles = polyglotProjectFiles();
+        final OOPSourceCodeModel model = new ClarpseProject(
+            projectFiles, List.of(Lang.JAVA, Lang.GOLANG, Lang.JAVASCRIPT)).result().model();
+        int expectedSize = 0;
+        for (final Lang lang : List.of(Lang.JAVA, Lang.GOLANG, Lang.JAVASCRIPT)) {
+            final OOPSourceCodeModel langModel = new ClarpseProject(projectFiles, lang).result().model();
+            assertTrue(langModel.size() > 0);
+            langModel.components().forEach(cmp -> assertTrue(model.containsComponent(cmp.uniqueName())));
+            expectedSize += langModel.size();
+        }
+        assertEquals(expectedSize, model.size());
+    }
+
+    @Test
+    public void testPolyglotProjectUpdatesOnlyChangedLanguages() throws Exception {
+        final ClarpseProject project = new ClarpseProject(
+            polyglotProjectFiles(), List.of(Lang.JAVA, Lang.GOLANG, Lang.JAVASCRIPT));
+        final int size = project.result().model().size();
+        final OOPSourceCodeModel model = project.update(
+            Collections.singletonList(new ProjectFile("/src/test/Cake.java", "package test; public class Pie { }")),
+            Collections.emptyList()).model();
+        assertEquals(size, model.size());
+        assertTrue(model.containsComponent("test.Pie"));
+        assertFalse(model.containsComponent("test.Cake"));
+        assertTrue(model.containsComponent("bakery.Pie"));
+    }
+
+    @Test
+    public void testPolyglotProjectRecordsComponentsCollidingAcrossLanguages() throws Exception {
+        final ProjectFiles projectFiles = new ProjectFiles();
+        projectFiles.insertFile(new ProjectFile("/src/bakery/Pie.java", "package bakery; public class Pie { }"));
+        projectFiles.insertFile(new ProjectFile("/src/bakery/Cake.java", "package bakery; public class Cake { }"));
+        projectFiles.insertFile(new ProjectFile("/go.mod", "module github.com/test"));
+        projectFiles.insertFile(new ProjectFile("/bakery/pie.go", "package bakery\n type Pie struct {}"));
+        projectFiles.insertFile(new ProjectFile("/bakery/tart.go", "package bakery\n type Tart struct {}"));
+        final CompileResult result = new ClarpseProject(projectFiles, List.of(Lang.JAVA, Lang.GOLANG)).result();
+        assertEquals("/src/bakery/Pie.java", result.model().getComponent("bakery.Pie").get().sourceFile());
+        assertTrue(result.model().containsComponent("bakery.Cake"));
+        assertTrue(result.model().containsComponent("bakery.Tart"));
+        assertEquals(1, result.failures().size());
+        assertTrue(result.failureReason("/bakery/pie.go").get().contains("[bakery.Pie]"));
+        assertEquals(Optional.empty(), result.failureReason("/src/bakery/Pie.java"));
+    }
+
+    @Test
+    public void testPolyglotProjectRecompilesGoFilesWhenOnlyGoModChanges() throws Exception {
+        final ProjectFiles projectFiles = polyglotProjectFiles();
+        projectFiles.insertFile(new ProjectFile("/shop/shop.go",
+            "package shop\n import \"github.com/test/bakery\"\n type Shop struct {\n pie bakery.Pie }"));
+        final ClarpseProject project = new ClarpseProject(
+            projectFiles, List.of(Lang.JAVA, Lang.GOLANG, Lang.JAVASCRIPT));
+        assertEquals(List.of("bakery.Pie"), referencedComponents(project.result().model(), "shop.Shop"));
+        final OOPSourceCodeModel model = project.update(
+            Collections.singletonList(new ProjectFile("/go.mod", "module github.com/other")),
+            Collections.emptyList()).model();
+        assertEquals(List.of("github.com.test.bakery.Pie"), referencedComponents(model, "shop.Shop"));
+        assertTrue(model.containsComponent("test.Cake"));
+        assertTrue(model.containsComponent("bakery.Pie"));
+    }
+
+    private static List<String> referencedComponents(final OOPSourceCodeModel model, final String cmpName) {
+        final List<String> dependencies = new ArrayList<>();
+        model.getComponent(cmpName).get().references().forEach(
+            ref -> dependencies.add(ref.invokedComponent()));
+        return dependencies;
+    }
 }
@@ -2,6 +2,7 @@ package com.hadi.test;
 
 import com.hadi.clarpse.compiler.ClarpseProject;
 import com.hadi.clarpse.compiler.Lang;
+import com.hadi.clarpse.compiler.ProjectFile;
 import com.hadi.clarpse.compiler.ProjectFiles;
 import com.hadi.clarpse.sourcemodel.OOPSourceCodeModel;
 import org.apache.commons.io.FileUtils;
@@ -50,4 +51,43 @@ public class ClarpseTestUtil {
         final ProjectFiles projectFiles = new ProjectFiles(ClarpseTestUtil.class.getResourceAsStream(testResourceZip));
         return new ClarpseProject(projectFiles, language).result().model();
     }
-}
\ No newline at end of file
+
+    /**
+     * Small Java project shared by the compile listener and metrics tests, in which
+     * {@code /src/test/Broken.java} fails to compile.
+     */
+    public static ProjectFiles javaProjectFiles() {
+        final ProjectFiles projectFiles = new ProjectFiles();
+        projectFiles.insertFile(new ProjectFile("/src/test/Cake.java",
+            "package test; public class Cake { private String flavour; }"));
+        projectFiles.insertFile(new ProjectFile("/src/test/Bakery.java",
+            "package test; public class Bakery { private Cake cake; void bake(Cake cake) { } }"));
+        projectFiles.insertFile(new ProjectFile("/src/test/Broken.java", "invalid java code"));
+        return projectFiles;
+    }
+
+    /**
+     * Project with one Java, one Go and one JavaScript type.
+     */
+    public static ProjectFiles polyglotProjectFiles() {
+        final ProjectFiles projectFiles = new ProjectFiles();
+        projectFiles.insertFile(new ProjectFile("/src/test/Cake.java", "package test; public class Cake { }"));
+        projectFiles.insertFile(new ProjectFile("/go.mod", "module github.com/test"));
+        projectFiles.insertFile(new ProjectFile("/bakery/types.go", "package bakery\n type Pie struct {}"));
+        projectFiles.insertFile(new ProjectFile("/web/muffin.js", "class Muffin { bake() {} }"));
+        return projectFiles;
+    }
+
+    /**
+     * Model of a small Java project shared by the model serialization tests.
+     */
+    public static OOPSourceCodeModel serializationModel() throws Exception {
+        final ProjectFiles rawData = new ProjectFiles();
+        rawData.insertFile(new ProjectFile("/test/Cake.java",
+            "package test; import java.util.List; /** A cake. */ public class Cake extends Pie implements Food { "
+                + "private List<String> slices; public static int bake(int a){ if (a > 1) { return 1; } return 0; } "
+                + "public int slice(int b){ return b; } }"));
+        rawData.insertFile(new ProjectFile("/test/Pie.java", "package test; abstract class Pie { }"));
+        return new ClarpseProject(rawData, Lang.JAVA).result().model();
+    }
+}
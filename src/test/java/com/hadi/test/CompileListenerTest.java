@@ -0,0 +1,151 @@
+package com.hadi.test;
+
+import com.hadi.clarpse.compiler.ClarpseCompiler;
+import com.hadi.clarpse.compiler.ClarpseProject;
+import com.hadi.clarpse.compiler.CompileListener;
+import com.hadi.clarpse.compiler.CompileMetrics.Phase;
+import com.hadi.clarpse.compiler.CompilerFactory;
+import com.hadi.clarpse.compiler.Lang;
+import com.hadi.clarpse.compiler.ProjectFile;
+import com.hadi.clarpse.compiler.ProjectFiles;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.hadi.test.ClarpseTestUtil.javaProjectFiles;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CompileListenerTest {
+
+    /**
+     * Records events as text, e.g. {@code JAVA fileStarted /A.java}.
+     */
+    private static final class RecordingListener implements CompileListener {
+
+        private final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        private final List<Throwable> causes = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void phaseStarted(final Lang lang, final Phase phase, final ProjectFile file) {
+            this.events.add(lang + " " + phase + " started" + (file == null ? "" : " " + file.path()));
+        }
+
+        @Override
+        public void phaseFinished(final Lang lang, final Phase phase, final ProjectFile file,
+                                  final long durationNanos) {
+            assertTrue(durationNanos >= 0);
+            this.events.add(lang + " " + phase + " finished" + (file == null ? "" : " " + file.path()));
+        }
+
+        @Override
+        public void fileStarted(final Lang lang, final ProjectFile file) {
+            this.events.add(lang + " fileStarted " + file.path());
+        }
+
+        @Override
+        public void fileFinished(final Lang lang, final ProjectFile file, final long durationNanos) {
+            assertTrue(durationNanos >= 0);
+            this.events.add(lang + " fileFinished " + file.path());
+        }
+
+        @Override
+        public void fileFailed(final Lang lang, final ProjectFile file, final Throwable cause) {
+            this.events.add(lang + " fileFailed " + file.path());
+            this.causes.add(cause);
+        }
+
+        private List<String> eventsOf(final String path) {
+            return this.events.stream().filter(event -> event.endsWith(" " + path)).collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void javaFileEventsTest() throws Exception {
+        final RecordingListener listener = new RecordingListener();
+        final ClarpseProject project = new ClarpseProject(javaProjectFiles(), Lang.JAVA);
+        project.addListener(listener);
+        project.result();
+        assertEquals(List.of("JAVA fileStarted /src/test/Cake.java",
+                             "JAVA PARSE started /src/test/Cake.java",
+                             "JAVA PARSE finished /src/test/Cake.java",
+                             "JAVA SYMBOL_RESOLUTION started /src/test/Cake.java",
+                             "JAVA SYMBOL_RESOLUTION finished /src/test/Cake.java",
+                             "JAVA fileFinished /src/test/Cake.java"),
+                     listener.eventsOf("/src/test/Cake.java"));
+    }
+
+    @Test
+    public void javaFailureEventsTest() throws Exception {
+        final RecordingListener listener = new RecordingListener();
+        final ClarpseProject project = new ClarpseProject(javaProjectFiles(), Lang.JAVA);
+        project.addListener(listener);
+        project.result();
+        final List<String> events = listener.eventsOf("/src/test/Broken.java");
+        assertTrue(events.contains("JAVA fileFailed /src/test/Broken.java"));
+        assertEquals("JAVA fileFinished /src/test/Broken.java", events.get(events.size() - 1));
+        assertEquals(1, listener.causes.size());
+        assertNull(listener.causes.get(0));
+    }
+
+    @Test
+    public void projectPhaseEventsTest() throws Exception {
+        final RecordingListener listener = new RecordingListener();
+        final ClarpseProject project = new ClarpseProject(javaProjectFiles(), Lang.JAVA);
+        project.addListener(listener);
+        project.result();
+        assertTrue(listener.events.contains("JAVA MERGE started"));
+        assertTrue(listener.events.contains("JAVA CLASSIFY_REFERENCES finished"));
+        assertTrue(listener.events.indexOf("JAVA fileFinished /src/test/Cake.java")
+                       < listener.events.indexOf("JAVA CLASSIFY_REFERENCES started"));
+    }
+
+    @Test
+    public void pipelinedProjectIngestionEventsTest() throws Exception {
+        final RecordingListener listener = new RecordingListener();
+        final ClarpseProject project = new ClarpseProject(
+            getClass().getResourceAsStream("/clarpse.zip"), Lang.JAVA);
+        project.addListener(listener);
+        project.result();
+        assertEquals("null INGESTION started", listener.events.get(0));
+        assertTrue(listener.events.contains("null INGESTION finished"));
+    }
+
+    @Test
+    public void goEventsTest() throws Exception {
+        final ProjectFiles projectFiles = new ProjectFiles();
+        projectFiles.insertFile(new ProjectFile("/go.mod", "module github.com/test"));
+        projectFiles.insertFile(new ProjectFile("/bakery/types.go", "package bakery\n type Pie struct {}"));
+        final RecordingListener listener = new RecordingListener();
+        final ClarpseProject project = new ClarpseProject(projectFiles, Lang.GOLANG);
+        project.addListener(listener);
+        project.result();
+        assertEquals(List.of("GOLANG fileStarted /bakery/types.go",
+                             "GOLANG PARSE started /bakery/types.go",
+                             "GOLANG PARSE finished /bakery/types.go",
+                             "GOLANG SYMBOL_RESOLUTION started /bakery/types.go",
+                             "GOLANG SYMBOL_RESOLUTION finished /bakery/types.go",
+                             "GOLANG fileFinished /bakery/types.go"),
+                     listener.eventsOf("/bakery/types.go"));
+        assertTrue(listener.events.contains("GOLANG INTERFACE_RESOLUTION finished"));
+    }
+
+    @Test
+    public void es6EventsTest() throws Exception {
+        final ProjectFiles projectFiles = new ProjectFiles();
+        projectFiles.insertFile(new ProjectFile("/web/muffin.js", "class Muffin wefwfewf { }"));
+        final RecordingListener listener = new RecordingListener();
+        final ClarpseCompiler compiler = CompilerFactory.getParsingTool(Lang.JAVASCRIPT);
+        compiler.addListener(listener);
+        compiler.compile(projectFiles);
+        final List<String> events = listener.eventsOf("/web/muffin.js");
+        assertEquals("JAVASCRIPT fileStarted /web/muffin.js", events.get(0));
+        assertTrue(events.contains("JAVASCRIPT MODULE_RESOLUTION finished /web/muffin.js"));
+        assertTrue(events.contains("JAVASCRIPT fileFailed /web/muffin.js"));
+        assertTrue(listener.events.contains("JAVASCRIPT MODULE_RESOLUTION finished"));
+    }
+}
@@ -0,0 +1,118 @@
+package com.hadi.test;
+
+import com.hadi.clarpse.compiler.ClarpseProject;
+import com.hadi.clarpse.compiler.CompileMetrics;
+import com.hadi.clarpse.compiler.CompileMetrics.Phase;
+import com.hadi.clarpse.compiler.CompileResult;
+import com.hadi.clarpse.compiler.Lang;
+import com.hadi.clarpse.compiler.ProjectFile;
+import com.hadi.clarpse.compiler.ProjectFiles;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static com.hadi.test.ClarpseTestUtil.javaProjectFiles;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CompileMetricsTest {
+
+    @Test
+    public void javaMetricsCountResultTest() throws Exception {
+        final CompileResult result = new ClarpseProject(javaProjectFiles(), Lang.JAVA).result();
+        final CompileMetrics metrics = result.metrics();
+        assertEquals(result.model().size(), metrics.componentCount());
+        assertEquals(result.model().components().mapToLong(cmp -> cmp.references().size()).sum(),
+                     metrics.referenceCount());
+        assertEquals(1, metrics.failureCount());
+        assertEquals(3, metrics.compiledFileCount());
+    }
+
+    @Test
+    public void javaMetricsTimePhasesTest() throws Exception {
+        final CompileMetrics metrics = new ClarpseProject(javaProjectFiles(), Lang.JAVA).result().metrics();
+        for (final Phase phase : List.of(Phase.PARSE, Phase.SYMBOL_RESOLUTION, Phase.MERGE,
+                                         Phase.CLASSIFY_REFERENCES)) {
+            assertTrue(phase.toString(), metrics.phaseTime(phase).compareTo(Duration.ZERO) > 0);
+        }
+        assertEquals(Duration.ZERO, metrics.phaseTime(Phase.INTERFACE_RESOLUTION));
+        assertEquals(Duration.ZERO, metrics.phaseTime(Phase.MODULE_RESOLUTION));
+        assertEquals(Duration.ZERO, metrics.phaseTime(Phase.INGESTION));
+        assertTrue(metrics.totalTime().compareTo(Duration.ZERO) > 0);
+    }
+
+    @Test
+    public void slowestFilesAreSortedAndLimitedTest() throws Exception {
+        final CompileMetrics metrics = new ClarpseProject(javaProjectFiles(), Lang.JAVA).result().metrics();
+        final Map<String, Duration> slowest = metrics.slowestFiles(2);
+        assertEquals(2, slowest.size());
+        final List<Duration> times = new ArrayList<>(slowest.values());
+        assertTrue(times.get(0).compareTo(times.get(1)) >= 0);
+        final List<Duration> allTimes = new ArrayList<>(metrics.fileTimes().values());
+        Collections.sort(allTimes);
+        assertEquals(allTimes.get(allTimes.size() - 1), times.get(0));
+        assertTrue(metrics.fileTimes().containsKey("/src/test/Broken.java"));
+    }
+
+    @Test
+    public void goMetricsTimeInterfaceResolutionTest() throws Exception {
+        final ProjectFiles projectFiles = new ProjectFiles();
+        projectFiles.insertFile(new ProjectFile("/go.mod", "module github.com/test"));
+        projectFiles.insertFile(new ProjectFile("/bakery/types.go",
+            "package bakery\n type Baker interface { Bake() }\n type Pie struct {}\n func (p Pie) Bake() {}"));
+        final CompileMetrics metrics = new ClarpseProject(projectFiles, Lang.GOLANG).result().metrics();
+        assertTrue(metrics.phaseTime(Phase.INTERFACE_RESOLUTION).compareTo(Duration.ZERO) > 0);
+        assertTrue(metrics.phaseTime(Phase.PARSE).compareTo(Duration.ZERO) > 0);
+        assertEquals(1, metrics.compiledFileCount());
+    }
+
+    @Test
+    public void es6MetricsTimeModuleResolutionTest() throws Exception {
+        final ProjectFiles projectFiles = new ProjectFiles();
+        projectFiles.insertFile(new ProjectFile("/web/muffin.js", "export class Muffin { bake() {} }"));
+        projectFiles.insertFile(new ProjectFile("/web/bakery.js",
+            "import { Muffin } from './muffin'; class Bakery { constructor() { this.muffin = new Muffin(); } }"));
+        final CompileMetrics metrics = new ClarpseProject(projectFiles, Lang.JAVASCRIPT).result().metrics();
+        assertTrue(metrics.phaseTime(Phase.MODULE_RESOLUTION).compareTo(Duration.ZERO) > 0);
+        assertTrue(metrics.phaseTime(Phase.SYMBOL_RESOLUTION).compareTo(Duration.ZERO) > 0);
+        assertEquals(2, metrics.compiledFileCount());
+    }
+
+    @Test
+    public void polyglotMetricsCombineLanguagesTest() throws Exception {
+        final ProjectFiles projectFiles = javaProjectFiles();
+        projectFiles.insertFile(new ProjectFile("/go.mod", "module github.com/test"));
+        projectFiles.insertFile(new ProjectFile("/bakery/types.go", "package bakery\n type Pie struct {}"));
+        final CompileResult result = new ClarpseProject(
+            projectFiles, List.of(Lang.JAVA, Lang.GOLANG)).result();
+        final CompileMetrics metrics = result.metrics();
+        assertEquals(result.model().size(), metrics.componentCount());
+        assertEquals(4, metrics.compiledFileCount());
+        assertEquals(1, metrics.failureCount());
+        assertTrue(metrics.phaseTime(Phase.CLASSIFY_REFERENCES).compareTo(Duration.ZERO) > 0);
+        assertTrue(metrics.phaseTime(Phase.INTERFACE_RESOLUTION).compareTo(Duration.ZERO) > 0);
+    }
+
+    @Test
+    public void pipelinedProjectTimesIngestionTest() throws Exception {
+        final CompileMetrics metrics = new ClarpseProject(
+            getClass().getResourceAsStream("/clarpse.zip"), Lang.JAVA).result().metrics();
+        assertTrue(metrics.phaseTime(Phase.INGESTION).compareTo(Duration.ZERO) > 0);
+        assertTrue(metrics.totalTime().compareTo(metrics.phaseTime(Phase.INGESTION)) >= 0);
+        assertTrue(metrics.compiledFileCount() > 0);
+    }
+
+    @Test
+    public void updateRecordsMetricsOfRecompilationTest() throws Exception {
+        final ClarpseProject project = new ClarpseProject(javaProjectFiles(), Lang.JAVA);
+        project.result();
+        final CompileResult result = project.update(Collections.singletonList(new ProjectFile(
+            "/src/test/Bakery.java", "package test; public class Bakery { }")), Collections.emptyList());
+        assertEquals(1, result.metrics().compiledFileCount());
+        assertEquals(result.model().size(), result.metrics().componentCount());
+    }
+}
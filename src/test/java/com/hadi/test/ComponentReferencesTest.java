@@ -0,0 +1,120 @@
+package com.hadi.test;
+
+import com.hadi.clarpse.reference.ComponentReference;
+import com.hadi.clarpse.reference.SimpleTypeReference;
+import com.hadi.clarpse.reference.TypeExtensionReference;
+import com.hadi.clarpse.reference.TypeImplementationReference;
+import com.hadi.clarpse.sourcemodel.Component;
+import com.hadi.clarpse.sourcemodel.OOPSourceModelConstants.TypeReferences;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ComponentReferencesTest {
+
+    private static ComponentReference external(final ComponentReference reference) {
+        reference.setExternal(true);
+        return reference;
+    }
+
+    private static List<String> names(final Iterable<ComponentReference> references) {
+        final List<String> names = new ArrayList<>();
+        references.forEach(ref -> names.add(ref.invokedComponent()));
+        return names;
+    }
+
+    private static Component component() {
+        final Component cmp = new Component();
+        cmp.setComponentName("Cake");
+        cmp.insertCmpRef(external(new SimpleTypeReference("java.lang.String")));
+        cmp.insertCmpRef(new SimpleTypeReference("Pie"));
+        cmp.insertCmpRef(new TypeExtensionReference("Food"));
+        cmp.insertCmpRef(external(new TypeImplementationReference("java.io.Serializable")));
+        return cmp;
+    }
+
+    @Test
+    public void testReferencesViewsReadThroughToComponent() {
+        final Component cmp = component();
+        final Set<ComponentReference> references = cmp.references();
+        final List<ComponentReference> simpleReferences = cmp.references(TypeReferences.SIMPLE);
+        cmp.insertCmpRef(new SimpleTypeReference("Crust"));
+        assertEquals(Arrays.asList("Pie", "Food", "Crust", "java.lang.String", "java.io.Serializable"),
+                     names(references));
+        assertEquals(Arrays.asList("Pie", "Crust", "java.lang.String"), names(simpleReferences));
+        assertEquals("java.lang.String", simpleReferences.get(2).invokedComponent());
+        assertEquals(5, references.size());
+        assertTrue(references.contains(new TypeExtensionReference("Food")));
+        assertFalse(references.contains(new SimpleTypeReference("Food")));
+    }
+
+    @Test
+    public void testIndexedReferencesFollowChanges() {
+        final Component cmp = component();
+        final List<ComponentReference> simpleReferences = cmp.references(TypeReferences.SIMPLE);
+        assertEquals("java.lang.String", simpleReferences.get(1).invokedComponent());
+        cmp.insertCmpRef(new SimpleTypeReference("Crust"));
+        assertEquals("Crust", simpleReferences.get(1).invokedComponent());
+        assertEquals("java.lang.String", simpleReferences.get(2).invokedComponent());
+        cmp.classifyReferences(ref -> !ref.invokedComponent().equals("Pie"));
+        assertEquals("Pie", simpleReferences.get(2).invokedComponent());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testIndexedReferenceOutOfBounds() {
+        component().references(TypeReferences.SIMPLE).get(2);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReferencesViewIsUnmodifiable() {
+        component().references().add(new SimpleTypeReference("Crust"));
+    }
+
+    @Test
+    public void testDependencyViewsWriteThroughToComponent() {
+        final Component cmp = component();
+        assertTrue(cmp.internalDependencies().add(new SimpleTypeReference("Crust")));
+        assertFalse(cmp.internalDependencies().add(new SimpleTypeReference("java.lang.String")));
+        assertTrue(cmp.externalDependencies().removeIf(ref -> ref.invokedComponent().equals("java.lang.String")));
+        assertTrue(cmp.internalDependencies().remove(new TypeExtensionReference("Food")));
+        assertEquals(Arrays.asList("Pie", "Crust", "java.io.Serializable"), names(cmp.references()));
+        assertEquals(Arrays.asList("Pie", "Crust"), names(cmp.references(TypeReferences.SIMPLE)));
+        assertTrue(cmp.references(TypeReferences.EXTENSION).isEmpty());
+    }
+
+    @Test
+    public void testEqualReferenceIsOnlyInsertedOnce() {
+        final Component cmp = component();
+        cmp.insertCmpRef(external(new SimpleTypeReference("Pie")));
+        assertEquals(4, cmp.references().size());
+        assertEquals(Arrays.asList("Pie", "Food"), names(cmp.internalDependencies()));
+    }
+
+    @Test
+    public void testClassifyReferences() {
+        final Component cmp = component();
+        cmp.classifyReferences(ref -> !ref.invokedComponent().equals("Pie"));
+        assertEquals(Arrays.asList("Food", "java.lang.String", "java.io.Serializable"),
+                     names(cmp.internalDependencies()));
+        assertEquals(Arrays.asList("Pie"), names(cmp.externalDependencies()));
+        assertTrue(cmp.externalDependencies().stream().allMatch(ComponentReference::isExternal));
+        assertTrue(cmp.internalDependencies().stream().noneMatch(ComponentReference::isExternal));
+    }
+
+    @Test
+    public void testRemoveReferencesOfType() {
+        final Component cmp = component();
+        cmp.removeReferences(TypeReferences.IMPLEMENTATION);
+        assertTrue(cmp.references(TypeReferences.IMPLEMENTATION).isEmpty());
+        assertEquals(Arrays.asList("Pie", "Food", "java.lang.String"),
+                     cmp.references().stream().map(ComponentReference::invokedComponent).collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,186 @@
+package com.hadi.test;
+
+import com.hadi.clarpse.compiler.ClarpseProject;
+import com.hadi.clarpse.compiler.CompileResult;
+import com.hadi.clarpse.compiler.FileBudget;
+import com.hadi.clarpse.compiler.FileBudgetExceededException;
+import com.hadi.clarpse.compiler.Lang;
+import com.hadi.clarpse.compiler.ProjectFile;
+import com.hadi.clarpse.compiler.ProjectFiles;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FileBudgetTest {
+
+    /**
+     * Returns a Go file declaring a struct with the given number of fields.
+     */
+    private static String largeGoFile(final int fieldCount) {
+        final StringBuilder code = new StringBuilder("package bakery\n type Pantry struct {\n");
+        for (int i = 0; i < fieldCount; i++) {
+            code.append("  flour").append(i).append(" map[string][]int\n");
+        }
+        return code.append("}\n").toString();
+    }
+
+    @Test
+    public void unlimitedBudgetNeverExpiresTest() {
+        final FileBudget.Deadline deadline = FileBudget.UNLIMITED.start(
+            new ProjectFile("/test/Cake.java", largeGoFile(1000)));
+        for (int i = 0; i < 10000; i++) {
+            deadline.tick();
+        }
+        deadline.check();
+        assertFalse(FileBudget.UNLIMITED.limited());
+    }
+
+    @Test(expected = FileBudgetExceededException.class)
+    public void expiredDeadlineThrowsTest() throws Exception {
+        final FileBudget.Deadline deadline = new FileBudget(1, 0).start(
+            new ProjectFile("/test/Cake.java", "class Cake {}"));
+        Thread.sleep(5);
+        deadline.check();
+    }
+
+    @Test
+    public void stalledWorkIsAbandonedTest() {
+        final FileBudget.Deadline deadline = new FileBudget(50, 0).start(
+            new ProjectFile("/test/Cake.java", "class Cake {}"));
+        final long start = System.nanoTime();
+        try {
+            deadline.run(() -> {
+                try {
+                    Thread.sleep(60_000);
+                } catch (InterruptedException ignored) {
+                }
+                return null;
+            });
+            fail();
+        } catch (FileBudgetExceededException e) {
+            assertTrue(e.getMessage().contains("longer than the budget"));
+        }
+        assertTrue(System.nanoTime() - start < 10_000_000_000L);
+    }
+
+    @Test
+    public void unlimitedWorkRunsOnCallingThreadTest() {
+        final FileBudget.Deadline deadline = FileBudget.UNLIMITED.start(
+            new ProjectFile("/test/Cake.java", "class Cake {}"));
+        assertSame(Thread.currentThread(), deadline.run(Thread::currentThread));
+    }
+
+    @Test(expected = FileBudgetExceededException.class)
+    public void oversizedFileCannotStartTest() {
+        new FileBudget(0, 1).start(new ProjectFile("/test/Cake.java", largeGoFile(100)));
+    }
+
+    @Test
+    public void goFileExceedingSizeIsAbortedTest() throws Exception {
+        final ProjectFiles projectFiles = new ProjectFiles();
+        projectFiles.insertFile(new ProjectFile("/go.mod", "module github.com/test"));
+        projectFiles.insertFile(new ProjectFile("/bakery/pie.go", "package bakery\n type Pie struct {}"));
+        projectFiles.insertFile(new ProjectFile("/bakery/pantry.go", largeGoFile(100)));
+        final ClarpseProject project = new ClarpseProject(projectFiles, Lang.GOLANG);
+        project.setFileBudget(new FileBudget(0, 1));
+        final CompileResult result = project.result();
+        assertEquals(1, result.failures().size());
+        assertTrue(result.failureReason("/bakery/pantry.go").get().contains("exceeding the budget"));
+        assertFalse(result.model().containsComponent("bakery.Pantry"));
+        assertTrue(result.model().containsComponent("bakery.Pie"));
+    }
+
+    @Test
+    public void goFileExceedingTimeIsAbortedTest() throws Exception {
+        final ProjectFiles projectFiles = new ProjectFiles();
+        projectFiles.insertFile(new ProjectFile("/go.mod", "module github.com/test"));
+        projectFiles.insertFile(new ProjectFile("/bakery/pie.go", "package bakery\n type Pie struct {}"));
+        projectFiles.insertFile(new ProjectFile("/bakery/pantry.go", largeGoFile(5000)));
+        final ClarpseProject project = new ClarpseProject(projectFiles, Lang.GOLANG);
+        project.setFileBudget(new FileBudget(1, 0));
+        final CompileResult result = project.result();
+        assertTrue(result.failureReason("/bakery/pantry.go").get().contains("longer than the budget"));
+        assertFalse(result.model().containsComponent("bakery.Pantry"));
+    }
+
+    @Test
+    public void javaFileExceedingSizeIsAbortedTest() throws Exception {
+        final ProjectFiles projectFiles = new ProjectFiles();
+        projectFiles.insertFile(new ProjectFile("/src/test/Cake.java", "package test; public class Cake { }"));
+        projectFiles.insertFile(new ProjectFile("/src/test/Bakery.java",
+            "package test; public class Bakery { private String flour" + " = \"flour\"".repeat(200) + "; }"));
+        projectFiles.insertFile(new ProjectFile("/src/test/Broken.java", "invalid java code"));
+        final ClarpseProject project = new ClarpseProject(projectFiles, Lang.JAVA);
+        project.setFileBudget(new FileBudget(0, 1));
+        final CompileResult result = project.result();
+        assertEquals(2, result.failures().size());
+        assertTrue(result.failureReason("/src/test/Bakery.java").get().contains("exceeding the budget"));
+        assertEquals(Optional.of(CompileResult.SYNTAX_ERRORS), result.failureReason("/src/test/Broken.java"));
+        assertEquals(Optional.empty(), result.failureReason("/src/test/Cake.java"));
+        assertEquals(1, result.failureReasons().size());
+        assertTrue(result.model().containsComponent("test.Cake"));
+        assertFalse(result.model().containsComponent("test.Bakery"));
+    }
+
+    @Test
+    public void javaFileExceedingTimeIsAbortedTest() throws Exception {
+        final ProjectFiles projectFiles = new ProjectFiles();
+        projectFiles.insertFile(new ProjectFile("/src/test/Cake.java", "package test; public class Cake { }"));
+        projectFiles.insertFile(new ProjectFile("/src/test/Bakery.java", "package test; public class Bakery { "
+            + "int bake(int flour) { return flour; }\n".repeat(20000) + "}"));
+        final ClarpseProject project = new ClarpseProject(projectFiles, Lang.JAVA);
+        project.setFileBudget(new FileBudget(1, 0));
+        final CompileResult result = project.result();
+        assertTrue(result.failureReason("/src/test/Bakery.java").get().contains("longer than the budget"));
+        assertFalse(result.model().containsComponent("test.Bakery"));
+    }
+
+    @Test
+    public void es6FileExceedingTimeIsAbortedTest() throws Exception {
+        final ProjectFiles projectFiles = new ProjectFiles();
+        projectFiles.insertFile(new ProjectFile("/web/bundle.js",
+            "class Bundle { bake() {} }\n" + "var flour = [1, 2, 3].map(x => x * 2);\n".repeat(20000)));
+        final ClarpseProject project = new ClarpseProject(projectFiles, Lang.JAVASCRIPT);
+        project.setFileBudget(new FileBudget(1, 0));
+        final CompileResult result = project.result();
+        assertTrue(result.failureReason("/web/bundle.js").get().contains("longer than the budget"));
+        assertFalse(result.model().containsComponent("web.Bundle"));
+    }
+
+    @Test
+    public void es6FileExceedingSizeIsAbortedTest() throws Exception {
+        final ProjectFiles projectFiles = new ProjectFiles();
+        projectFiles.insertFile(new ProjectFile("/web/muffin.js", "class Muffin { bake() {} }"));
+        projectFiles.insertFile(new ProjectFile("/web/bundle.js",
+            "class Bundle { bake() {} }\n" + "var flour = 1;\n".repeat(100)));
+        final ClarpseProject project = new ClarpseProject(projectFiles, Lang.JAVASCRIPT);
+        project.setFileBudget(new FileBudget(0, 1));
+        final CompileResult result = project.result();
+        assertEquals(1, result.failures().size());
+        assertTrue(result.failureReason("/web/bundle.js").get().contains("exceeding the budget"));
+        assertTrue(result.model().containsComponent("web.Muffin"));
+        assertFalse(result.model().containsComponent("web.Bundle"));
+    }
+
+    @Test
+    public void updateKeepsReasonsOfUnchangedFailuresTest() throws Exception {
+        final ProjectFiles projectFiles = new ProjectFiles();
+        projectFiles.insertFile(new ProjectFile("/src/test/Cake.java", "package test; public class Cake { }"));
+        projectFiles.insertFile(new ProjectFile("/src/test/Bakery.java",
+            "package test; public class Bakery { }" + " ".repeat(2000)));
+        final ClarpseProject project = new ClarpseProject(projectFiles, Lang.JAVA);
+        project.setFileBudget(new FileBudget(0, 1));
+        project.result();
+        final CompileResult result = project.update(Collections.singletonList(new ProjectFile(
+            "/src/test/Cake.java", "package test; public class Pie { }")), Collections.emptyList());
+        assertTrue(result.failureReason("/src/test/Bakery.java").get().contains("exceeding the budget"));
+        assertTrue(result.model().containsComponent("test.Pie"));
+    }
+}
@@ -0,0 +1,70 @@
+package com.hadi.test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hadi.clarpse.sourcemodel.Component;
+import com.hadi.clarpse.sourcemodel.JsonModelReader;
+import com.hadi.clarpse.sourcemodel.JsonModelWriter;
+import com.hadi.clarpse.sourcemodel.OOPSourceCodeModel;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class JsonModelSerializationTest {
+
+    private static byte[] write(final OOPSourceCodeModel model) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new JsonModelWriter(out).write(model);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testWrittenJsonMatchesJacksonJson() throws Exception {
+        final OOPSourceCodeModel model = ClarpseTestUtil.serializationModel();
+        assertEquals(new ObjectMapper().writeValueAsString(model),
+                     new String(write(model), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testRoundTripPreservesComponents() throws Exception {
+        final OOPSourceCodeModel model = ClarpseTestUtil.serializationModel();
+        final OOPSourceCodeModel read = new JsonModelReader(new ByteArrayInputStream(write(model))).read();
+        final ObjectMapper mapper = new ObjectMapper();
+        assertEquals(mapper.convertValue(model, Map.class), mapper.convertValue(read, Map.class));
+        assertEquals(new ArrayList<>(model.getComponent("test.Cake").get().internalDependencies()),
+                     new ArrayList<>(read.getComponent("test.Cake").get().internalDependencies()));
+    }
+
+    @Test
+    public void testReadsComponentsOneAtATime() throws Exception {
+        final OOPSourceCodeModel model = ClarpseTestUtil.serializationModel();
+        final List<String> names = new ArrayList<>();
+        new JsonModelReader(new ByteArrayInputStream(write(model))).read(
+            (Component cmp) -> names.add(cmp.uniqueName()));
+        final List<String> expected = new ArrayList<>();
+        model.components().forEach(cmp -> expected.add(cmp.uniqueName()));
+        assertEquals(expected, names);
+    }
+
+    @Test
+    public void testSkipsUnknownFields() throws Exception {
+        final String json = "{\"version\":{\"major\":1},\"components\":{\"test.Pie\":{\"name\":\"Pie\","
+            + "\"componentName\":\"Pie\",\"type\":\"CLASS\",\"pkg\":{\"packageName\":\"test\","
+            + "\"packagePath\":\"/test\"}}}}";
+        final OOPSourceCodeModel read = new JsonModelReader(
+            new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))).read();
+        assertEquals("/test", read.getComponent("test.Pie").get().pkg().path());
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadingInvalidDataFails() throws Exception {
+        new JsonModelReader(new ByteArrayInputStream("[]".getBytes(StandardCharsets.UTF_8))).read();
+    }
+}
@@ -0,0 +1,85 @@
+package com.hadi.test;
+
+import com.hadi.clarpse.compiler.ClarpseProject;
+import com.hadi.clarpse.compiler.CompileResult;
+import com.hadi.clarpse.compiler.Lang;
+import com.hadi.clarpse.compiler.ProjectFile;
+import com.hadi.clarpse.compiler.ProjectFiles;
+import com.hadi.clarpse.sourcemodel.Component;
+import com.hadi.clarpse.sourcemodel.ModelIndex;
+import com.hadi.clarpse.sourcemodel.OOPSourceModelConstants.ComponentType;
+import com.hadi.clarpse.sourcemodel.OOPSourceModelConstants.TypeReferences;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ModelIndexTest {
+
+    private static CompileResult result;
+    private static ModelIndex index;
+
+    @BeforeClass
+    public static void compile() throws Exception {
+        final ProjectFiles rawData = new ProjectFiles();
+        rawData.insertFile(new ProjectFile("/food/Food.java", "package food; public interface Food { }"));
+        rawData.insertFile(new ProjectFile("/food/Pie.java", "package food; public class Pie { }"));
+        rawData.insertFile(new ProjectFile("/food/Cake.java",
+            "package food; public class Cake extends Pie implements Food { private Pie pie; }"));
+        rawData.insertFile(new ProjectFile("/shop/Shop.java",
+            "package shop; import food.Cake; public class Shop { Cake cake; }"));
+        result = new ClarpseProject(rawData, Lang.JAVA).result();
+        index = result.index();
+    }
+
+    private static HashSet<String> names(final List<Component> cmps) {
+        return cmps.stream().map(Component::uniqueName).collect(Collectors.toCollection(HashSet::new));
+    }
+
+    @Test
+    public void testIndexIsBuiltOnce() {
+        assertSame(index, result.index());
+    }
+
+    @Test
+    public void testReferencingComponents() {
+        assertEquals(new HashSet<>(Arrays.asList("food.Cake", "food.Cake.pie")), names(index.referencing("food.Pie")));
+        assertEquals(new HashSet<>(Arrays.asList("shop.Shop", "shop.Shop.cake")), names(index.referencing("food.Cake")));
+        assertTrue(index.referencing("food.Tart").isEmpty());
+    }
+
+    @Test
+    public void testReferencingComponentsByType() {
+        assertEquals(new HashSet<>(Arrays.asList("food.Cake")), names(index.subtypes("food.Pie")));
+        assertEquals(new HashSet<>(Arrays.asList("food.Cake")), names(index.implementors("food.Food")));
+        assertEquals(new HashSet<>(Arrays.asList("food.Cake", "food.Cake.pie")),
+                     names(index.referencing("food.Pie", TypeReferences.SIMPLE)));
+    }
+
+    @Test
+    public void testPackageAndTypeComponents() {
+        assertEquals(new HashSet<>(Arrays.asList("shop.Shop", "shop.Shop.cake")), names(index.packageComponents("shop")));
+        assertEquals(new HashSet<>(Arrays.asList("food.Food")), names(index.components(ComponentType.INTERFACE)));
+        assertEquals(3, index.components(ComponentType.CLASS).size());
+    }
+
+    @Test
+    public void testChildrenAndParents() {
+        assertEquals(new HashSet<>(Arrays.asList("food.Cake.pie")), names(index.children("food.Cake")));
+        assertEquals("food.Cake", index.parent("food.Cake.pie").get().uniqueName());
+        assertFalse(index.parent("food.Cake").isPresent());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testQueryResultsAreUnmodifiable() {
+        index.referencing("food.Pie").clear();
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.Test;
 
 import com.hadi.clarpse.sourcemodel.Component;
 import com.hadi.clarpse.sourcemodel.OOPSourceCodeModel;
+import com.hadi.clarpse.sourcemodel.Package;
 import com.hadi.clarpse.sourcemodel.OOPSourceModelConstants.ComponentType;
 
 public class OOPSourceCodeModelTest {
@@ -65,4 +66,21 @@ public class OOPSourceCodeModelTest {
         component.setComponentName("Test");
         childCmp.parentBaseCmp("Test");
     }
+
+    @Test
+    public void uniqueNameFollowsPackageAndNameChangesTest() {
+        Component component = new Component();
+        component.setComponentName("Test.run()");
+        component.setComponentType(ComponentType.METHOD);
+        assertEquals("Test.run()", component.uniqueName());
+        assertEquals("Test", component.parentUniqueName());
+        component.setPkg(new Package("pkg", "/pkg"));
+        assertEquals("pkg.Test.run()", component.uniqueName());
+        assertEquals("pkg.Test", component.parentUniqueName());
+        component.setComponentName("Test.run(a.B)");
+        assertEquals("pkg.Test.run(a.B)", component.uniqueName());
+        assertEquals("pkg.Test", component.parentUniqueName());
+        component.setComponentType(ComponentType.FIELD);
+        assertEquals("pkg.Test.run(a", component.parentUniqueName());
+    }
 }
@@ -0,0 +1,200 @@
+package com.hadi.test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hadi.clarpse.compiler.ClarpseProject;
+import com.hadi.clarpse.compiler.CompileListener;
+import com.hadi.clarpse.compiler.CompileMetrics;
+import com.hadi.clarpse.compiler.CompileResult;
+import com.hadi.clarpse.compiler.Lang;
+import com.hadi.clarpse.compiler.ParseCache;
+import com.hadi.clarpse.compiler.ProjectFile;
+import com.hadi.clarpse.compiler.ProjectFiles;
+import com.hadi.clarpse.sourcemodel.Component;
+import com.hadi.clarpse.sourcemodel.OOPSourceCodeModel;
+import com.hadi.clarpse.sourcemodel.OOPSourceModelConstants;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ParseCacheTest {
+
+    @Rule
+    public TemporaryFolder tmpDir = new TemporaryFolder();
+
+    private static ParseCache.Fragment fragment(final String cmpName) {
+        final Component cmp = new Component();
+        cmp.setName(cmpName);
+        cmp.setComponentName(cmpName);
+        cmp.setComponentType(OOPSourceModelConstants.ComponentType.CLASS);
+        final OOPSourceCodeModel model = new OOPSourceCodeModel();
+        model.insertComponent(cmp);
+        return new ParseCache.Fragment(model, false, Collections.singletonList(
+            new AbstractMap.SimpleEntry<>("parent", cmp)));
+    }
+
+    @Test
+    public void testCachedFragmentIsReturnedForSameFile() throws Exception {
+        final ParseCache cache = new ParseCache(tmpDir.getRoot().toPath(), Long.MAX_VALUE);
+        final String key = cache.key(Lang.JAVA, new ProjectFile("/test/Cake.java", "class Cake {}"), "");
+        cache.put(key, fragment("Cake"));
+        final Optional<ParseCache.Fragment> cached = cache.get(key);
+        assertTrue(cached.isPresent());
+        assertTrue(cached.get().model().containsComponent("Cake"));
+        assertFalse(cached.get().failed());
+        assertSame(cached.get().model().getComponent("Cake").get(),
+                   cached.get().pendingChildren().get(0).getValue());
+    }
+
+    @Test
+    public void testCachedFragmentKeepsFailureReason() throws Exception {
+        final ParseCache cache = new ParseCache(tmpDir.getRoot().toPath(), Long.MAX_VALUE);
+        final String key = cache.key(Lang.JAVA, new ProjectFile("/test/Cake.java", "class Cake {"), "");
+        cache.put(key, new ParseCache.Fragment(new OOPSourceCodeModel(), true, "Stack overflow.",
+                                               Collections.emptyList()));
+        final ParseCache.Fragment cached = cache.get(key).get();
+        assertTrue(cached.failed());
+        assertEquals(Optional.of("Stack overflow."), cached.failureReason());
+    }
+
+    @Test
+    public void testKeyDependsOnContentAndContext() {
+        final ParseCache cache = new ParseCache(tmpDir.getRoot().toPath(), Long.MAX_VALUE);
+        final ProjectFile file = new ProjectFile("/test/Cake.java", "class Cake {}");
+        final String key = cache.key(Lang.JAVA, file, "");
+        assertEquals(key, cache.key(Lang.JAVA, new ProjectFile("/test/Cake.java", "class Cake {}"), ""));
+        assertNotEquals(key, cache.key(Lang.JAVA, new ProjectFile("/test/Cake.java", "class Pie {}"), ""));
+        assertNotEquals(key, cache.key(Lang.JAVA, new ProjectFile("/test/Pie.java", "class Cake {}"), ""));
+        assertNotEquals(key, cache.key(Lang.GOLANG, file, ""));
+        assertNotEquals(key, cache.key(Lang.JAVA, file, ParseCache.digest("context")));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedEntries() throws Exception {
+        final Path dir = tmpDir.getRoot().toPath();
+        final ParseCache unbounded = new ParseCache(dir, Long.MAX_VALUE);
+        final String oldKey = unbounded.key(Lang.JAVA, new ProjectFile("/Old.java", "class Old {}"), "");
+        final String newKey = unbounded.key(Lang.JAVA, new ProjectFile("/New.java", "class New {}"), "");
+        unbounded.put(oldKey, fragment("Old"));
+        unbounded.put(newKey, fragment("New"));
+        final long entrySize;
+        try (Stream<Path> entries = Files.walk(dir)) {
+            entrySize = entries.filter(Files::isRegularFile).mapToLong(path -> path.toFile().length()).max().getAsLong();
+        }
+        try (Stream<Path> entries = Files.walk(dir)) {
+            entries.filter(path -> path.getFileName().toString().startsWith(oldKey)).forEach(
+                path -> path.toFile().setLastModified(System.currentTimeMillis() - 60_000));
+        }
+        new ParseCache(dir, entrySize).evict();
+        assertFalse(unbounded.get(oldKey).isPresent());
+        assertTrue(unbounded.get(newKey).isPresent());
+    }
+
+    @Test
+    public void testDisabledCacheStoresNothing() {
+        final ParseCache cache = new ParseCache(null, Long.MAX_VALUE);
+        assertFalse(cache.enabled());
+        final String key = cache.key(Lang.JAVA, new ProjectFile("/Cake.java", "class Cake {}"), "");
+        cache.put(key, fragment("Cake"));
+        assertFalse(cache.get(key).isPresent());
+    }
+
+    @Test
+    public void testOnlyReleaseVersionsAreCached() {
+        assertTrue(ParseCache.releaseVersion("8.1.0"));
+        assertFalse(ParseCache.releaseVersion("8.2.0-SNAPSHOT"));
+        assertFalse(ParseCache.releaseVersion("unknown"));
+        assertFalse(ParseCache.releaseVersion("${project.version}"));
+    }
+
+    /**
+     * Compiles the given files with the cache of this test, counting the files whose symbols
+     * were resolved rather than taken from the cache and the files reported as failed.
+     */
+    private CompileResult compile(final ProjectFiles projectFiles, final Lang lang, final AtomicInteger resolvedFiles,
+                                  final AtomicInteger failedFiles) throws Exception {
+        final ClarpseProject project = new ClarpseProject(projectFiles, lang);
+        project.setParseCache(new ParseCache(tmpDir.getRoot().toPath(), Long.MAX_VALUE));
+        project.addListener(new CompileListener() {
+            @Override
+            public void phaseStarted(final Lang lang, final CompileMetrics.Phase phase, final ProjectFile file) {
+                if (phase == CompileMetrics.Phase.SYMBOL_RESOLUTION && file != null) {
+                    resolvedFiles.incrementAndGet();
+                }
+            }
+
+            @Override
+            public void fileFailed(final Lang lang, final ProjectFile file, final Throwable cause) {
+                failedFiles.incrementAndGet();
+            }
+        });
+        return project.result();
+    }
+
+    private void assertWarmCompileMatchesColdCompile(final ProjectFiles projectFiles, final Lang lang,
+                                                     final String brokenFile) throws Exception {
+        final AtomicInteger coldResolvedFiles = new AtomicInteger();
+        final AtomicInteger coldFailedFiles = new AtomicInteger();
+        final CompileResult cold = compile(projectFiles, lang, coldResolvedFiles, coldFailedFiles);
+        final AtomicInteger warmResolvedFiles = new AtomicInteger();
+        final AtomicInteger warmFailedFiles = new AtomicInteger();
+        final CompileResult warm = compile(projectFiles, lang, warmResolvedFiles, warmFailedFiles);
+        assertTrue(coldResolvedFiles.get() > 0);
+        assertEquals(0, warmResolvedFiles.get());
+        final ObjectMapper mapper = new ObjectMapper();
+        assertEquals(mapper.writeValueAsString(cold.model()), mapper.writeValueAsString(warm.model()));
+        assertEquals(cold.metrics().compiledFileCount(), warm.metrics().compiledFileCount());
+        assertEquals(1, coldFailedFiles.get());
+        assertEquals(1, warmFailedFiles.get());
+        assertEquals(Optional.of(CompileResult.SYNTAX_ERRORS), warm.failureReason(brokenFile));
+    }
+
+    @Test
+    public void testWarmJavaCompileMatchesColdCompile() throws Exception {
+        final ProjectFiles projectFiles = new ProjectFiles(Objects.requireNonNull(
+            ParseCacheTest.class.getResourceAsStream("/clarpse.zip")));
+        projectFiles.insertFile(new ProjectFile("/test/Broken.java", "invalid java code"));
+        assertWarmCompileMatchesColdCompile(projectFiles, Lang.JAVA, "/test/Broken.java");
+    }
+
+    @Test
+    public void testWarmGoCompileMatchesColdCompile() throws Exception {
+        final ProjectFiles projectFiles = new ProjectFiles();
+        projectFiles.insertFile(new ProjectFile("/go.mod", "module github.com/test"));
+        projectFiles.insertFile(new ProjectFile("/bakery/types.go",
+            "package bakery\n type Cake struct {\n slices []int }\n type Baker interface {\n Bake() int }"));
+        projectFiles.insertFile(new ProjectFile("/bakery/cake.go",
+            "package bakery\n func (c Cake) Bake() int {\n if len(c.slices) > 1 {\n return 1 }\n return 0 }"));
+        projectFiles.insertFile(new ProjectFile("/shop/shop.go",
+            "package shop\n import \"github.com/test/bakery\"\n type Shop struct {\n cake bakery.Cake }"));
+        projectFiles.insertFile(new ProjectFile("/bakery/broken.go", "package bakery\n func {"));
+        assertWarmCompileMatchesColdCompile(projectFiles, Lang.GOLANG, "/bakery/broken.go");
+    }
+
+    @Test
+    public void testWarmEs6CompileMatchesColdCompile() throws Exception {
+        final ProjectFiles projectFiles = new ProjectFiles();
+        projectFiles.insertFile(new ProjectFile("/web/samples.js", new String(Objects.requireNonNull(
+            ParseCacheTest.class.getResourceAsStream("/sample-es6.txt")).readAllBytes())));
+        projectFiles.insertFile(new ProjectFile("/web/shapes/polygon.js", "export class Polygon { area() {} }"));
+        projectFiles.insertFile(new ProjectFile("/web/types/cake.js",
+            "import { Polygon } from '../shapes/polygon';\n class Cake extends Polygon { "
+                + "constructor() { Polygon.test(); } }"));
+        projectFiles.insertFile(new ProjectFile("/web/broken.js", "class {"));
+        assertWarmCompileMatchesColdCompile(projectFiles, Lang.JAVASCRIPT, "/web/broken.js");
+    }
+}
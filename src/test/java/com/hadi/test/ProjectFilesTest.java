@@ -1,13 +1,18 @@
 package com.hadi.test;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hadi.clarpse.compiler.ClarpseProject;
 import com.hadi.clarpse.compiler.Lang;
 import com.hadi.clarpse.compiler.ProjectFile;
 import com.hadi.clarpse.compiler.ProjectFiles;
+import com.hadi.clarpse.sourcemodel.OOPSourceCodeModel;
+import org.apache.commons.io.FileUtils;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -76,6 +81,114 @@ public class ProjectFilesTest {
             "com.hadi.clarpse.listener.GoLangTreeListener.currPkg").isPresent());
     }
 
+    @Test
+    public void testStreamingZipInputStreamMatchesExtractedFiles() throws Exception {
+        try (ProjectFiles streamingProjectFiles = new ProjectFiles(
+                ClarpseTestUtil.class.getResourceAsStream("/clarpse.zip"), true)) {
+            assertEquals(35, streamingProjectFiles.size());
+            assertEquals(InputStreamProjectFiles.files(), streamingProjectFiles.files());
+        }
+    }
+
+    @Test
+    public void testStreamingZipPathComponentCheck() throws Exception {
+        try (ProjectFiles streamingProjectFiles = new ProjectFiles(
+                Objects.requireNonNull(ClarpseTestUtil.class.getResource("/clarpse.zip")).getFile(), true)) {
+            assertTrue(new ClarpseProject(streamingProjectFiles, Lang.JAVA).result().model().getComponent(
+                "com.hadi.clarpse.listener.GoLangTreeListener.currPkg").isPresent());
+        }
+    }
+
+    @Test
+    public void testStreamingSourceDirMatchesReadFiles() throws Exception {
+        try (ProjectFiles streamingProjectFiles = new ProjectFiles(sourceDir, true)) {
+            assertEquals(35, streamingProjectFiles.size());
+            assertEquals(sourceDirProjectFiles.files(), streamingProjectFiles.files());
+        }
+    }
+
+    @Test
+    public void testSourceDirFilesFilteredByGlobs() throws Exception {
+        final ProjectFiles projectFiles = new ProjectFiles(sourceDir, false, List.of("**/*.java"),
+                                                           List.of("**/listener/**", "**/ClarpseUtil.java"));
+        assertEquals(25, projectFiles.size());
+        assertTrue(projectFiles.files().stream().noneMatch(
+            file -> file.path().contains("listener") || file.name().equals("ClarpseUtil.java")));
+    }
+
+    @Test
+    public void testRootLevelDirExcludedByAnyAncestorGlob() throws Exception {
+        final File dir = Files.createTempDirectory("clarpse").toFile();
+        FileUtils.writeStringToFile(new File(dir, "main.go"), "package main", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(dir, "vendor/lib/lib.go"), "package lib", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(dir, "cake/vendor/lib.go"), "package lib", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(dir, "cake/cake.go"), "package cake", StandardCharsets.UTF_8);
+        try (ProjectFiles projectFiles = new ProjectFiles(dir.getPath(), false, List.of("**/*.go"),
+                                                          List.of("**/vendor/**"))) {
+            assertEquals(2, projectFiles.size());
+            assertEquals(1, projectFiles.matchingFilesByName("main.go").size());
+            assertTrue(projectFiles.files().stream().noneMatch(file -> file.path().contains("vendor")));
+        }
+        FileUtils.deleteQuietly(dir);
+    }
+
+    @Test
+    public void testZipPathFilesFilteredByGlobs() throws Exception {
+        final ProjectFiles projectFiles = new ProjectFiles(
+            Objects.requireNonNull(ClarpseTestUtil.class.getResource("/clarpse.zip")).getFile(), false,
+            List.of("clarpse/src/main/java/com/hadi/clarpse/compiler/**"), Collections.emptyList());
+        assertEquals(13, projectFiles.size());
+    }
+
+    @Test
+    public void testSourceDirFilesAreDecodedAsUtf8() throws Exception {
+        final File dir = Files.createTempDirectory("clarpse").toFile();
+        final String smallCode = "class Caf\u00e9 { String s = \"\u00fc\"; }";
+        final String largeCode = "class Cr\u00e8me { }" + "//\u00e9\n".repeat(100_000);
+        FileUtils.writeStringToFile(new File(dir, "Cafe.java"), smallCode, StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(dir, "Creme.java"), largeCode, StandardCharsets.UTF_8);
+        for (final boolean streaming : new boolean[]{false, true}) {
+            try (ProjectFiles projectFiles = new ProjectFiles(dir.getPath(), streaming)) {
+                assertEquals(smallCode, projectFiles.matchingFilesByName("Cafe.java").iterator().next().content());
+                assertEquals(largeCode, projectFiles.matchingFilesByName("Creme.java").iterator().next().content());
+            }
+        }
+        FileUtils.deleteQuietly(dir);
+    }
+
+    @Test
+    public void testPipelinedZipInputStreamComponentCheck() throws Exception {
+        final ClarpseProject project = new ClarpseProject(
+            ClarpseTestUtil.class.getResourceAsStream("/clarpse.zip"), Lang.JAVA);
+        assertEquals(new ClarpseProject(InputStreamProjectFiles, Lang.JAVA).result().model().size(),
+                     project.result().model().size());
+        assertTrue(project.result().model().getComponent(
+            "com.hadi.clarpse.listener.GoLangTreeListener.currPkg").isPresent());
+    }
+
+    @Test
+    public void testPipelinedSourceDirMatchesReadEs6Files() throws Exception {
+        final File dir = Files.createTempDirectory("clarpse").toFile();
+        FileUtils.writeStringToFile(new File(dir, "shapes/polygon.js"), "export class Polygon { area() {} }",
+                                    StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(dir, "types/cake.js"),
+            "import { Polygon } from '../shapes/polygon';\n class Cake extends Polygon { "
+                + "constructor() { Polygon.test(); } }", StandardCharsets.UTF_8);
+        final ObjectMapper mapper = new ObjectMapper();
+        final OOPSourceCodeModel model = new ClarpseProject(dir.getPath(), Lang.JAVASCRIPT).result().model();
+        assertEquals(mapper.writeValueAsString(
+            new ClarpseProject(new ProjectFiles(dir.getPath()), Lang.JAVASCRIPT).result().model()),
+                     mapper.writeValueAsString(model));
+        assertTrue(model.components().anyMatch(cmp -> cmp.uniqueName().endsWith("types.Cake.constructor")));
+        FileUtils.deleteQuietly(dir);
+    }
+
+    @Test
+    public void testPipelinedSourceDirComponentCheck() throws Exception {
+        assertTrue(new ClarpseProject(sourceDir, Lang.JAVA).result().model().getComponent(
+            "com.hadi.clarpse.listener.GoLangTreeListener.currPkg").isPresent());
+    }
+
     @Test
     public void testZipPathComponentCheck() throws Exception {
         assertTrue(new ClarpseProject(zipPathProjectFiles, Lang.JAVA).result().model().getComponent(
@@ -0,0 +1,125 @@
+package com.hadi.test;
+
+import com.hadi.clarpse.compiler.ClarpseProject;
+import com.hadi.clarpse.compiler.Lang;
+import com.hadi.clarpse.compiler.ProjectFile;
+import com.hadi.clarpse.compiler.ProjectFiles;
+import com.hadi.clarpse.sourcemodel.Component;
+import com.hadi.clarpse.sourcemodel.OOPSourceCodeModel;
+import com.hadi.clarpse.sourcemodel.SymbolTable;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SymbolTableTest {
+
+    private static OOPSourceCodeModel model() throws Exception {
+        final ProjectFiles rawData = new ProjectFiles();
+        rawData.insertFile(new ProjectFile("/test/Cake.java",
+            "package test; import java.util.List; public class Cake { private List<String> a; }"));
+        rawData.insertFile(new ProjectFile("/test/Pie.java",
+            "package test; import java.util.List; public class Pie { private List<String> b; }"));
+        return new ClarpseProject(rawData, Lang.JAVA).result().model();
+    }
+
+    @Test
+    public void testComponentsShareEqualValues() throws Exception {
+        final OOPSourceCodeModel model = model();
+        final Component cake = model.getComponent("test.Cake").get();
+        final Component pie = model.getComponent("test.Pie").get();
+        assertSame(cake.imports(), pie.imports());
+        assertSame(cake.modifiers(), pie.modifiers());
+        assertSame(cake.pkg(), pie.pkg());
+        assertSame(model.getComponent("test.Cake.a").get().references().iterator().next().invokedComponent(),
+                   model.getComponent("test.Pie.b").get().references().iterator().next().invokedComponent());
+    }
+
+    @Test
+    public void testModifyingComponentDoesNotModifySharedValues() throws Exception {
+        final OOPSourceCodeModel model = model();
+        final Component cake = model.getComponent("test.Cake").get();
+        final Component pie = model.getComponent("test.Pie").get();
+        cake.insertAccessModifier("static");
+        cake.addImports("java.util.Map");
+        assertEquals(new LinkedHashSet<>(Arrays.asList("public", "static")), cake.modifiers());
+        assertTrue(cake.imports().contains("java.util.Map"));
+        assertFalse(pie.modifiers().contains("static"));
+        assertFalse(pie.imports().contains("java.util.Map"));
+    }
+
+    @Test
+    public void testInternedSetsRetainOrder() {
+        final SymbolTable symbols = new SymbolTable();
+        final Set<String> publicStatic = symbols.intern(new LinkedHashSet<>(Arrays.asList("public", "static")));
+        final Set<String> staticPublic = symbols.intern(new LinkedHashSet<>(Arrays.asList("static", "public")));
+        assertEquals("[public, static]", publicStatic.toString());
+        assertEquals("[static, public]", staticPublic.toString());
+        assertSame(publicStatic, symbols.intern(new LinkedHashSet<>(Arrays.asList("public", "static"))));
+    }
+
+    private static Component component(final String name, final String sourceFile) {
+        final Component cmp = new Component();
+        cmp.setComponentName(name);
+        cmp.setName(name);
+        cmp.setSourceFilePath(sourceFile);
+        return cmp;
+    }
+
+    @Test
+    public void testMergingModelSharingTableDoesNotInternAgain() {
+        final SymbolTable symbols = new SymbolTable();
+        final OOPSourceCodeModel fileModel = new OOPSourceCodeModel(symbols);
+        final Component cake = component("Cake", "/Cake.java");
+        fileModel.insertComponent(cake);
+        final String name = new String("Cake");
+        cake.setName(name);
+        final OOPSourceCodeModel model = new OOPSourceCodeModel(symbols);
+        model.merge(fileModel);
+        assertSame(name, model.getComponent("Cake").get().name());
+        final OOPSourceCodeModel otherModel = new OOPSourceCodeModel();
+        otherModel.symbols().intern("Cake");
+        otherModel.merge(fileModel);
+        assertNotSame(name, cake.name());
+    }
+
+    @Test
+    public void testTableIsRebuiltOnceMostComponentsWereRemoved() {
+        final OOPSourceCodeModel model = new OOPSourceCodeModel();
+        model.insertComponent(component("Cake", "/Cake.java"));
+        model.insertComponent(component("Pie", "/Pie.java"));
+        model.insertComponent(component("Tart", "/Tart.java"));
+        final SymbolTable symbols = model.symbols();
+        model.removeFileComponents(Collections.singletonList("/Cake.java"));
+        assertSame(symbols, model.symbols());
+        model.removeFileComponents(Collections.singletonList("/Pie.java"));
+        assertNotSame(symbols, model.symbols());
+        assertSame(model.symbols().intern("Tart"), model.getComponent("Tart").get().name());
+        assertEquals(2, model.symbols().size());
+    }
+
+    @Test
+    public void testTableOfUpdatedProjectDoesNotGrowWithoutBound() throws Exception {
+        final ProjectFiles rawData = new ProjectFiles();
+        rawData.insertFile(new ProjectFile("/test/Cake.java", "package test; public class Cake { int a0; }"));
+        rawData.insertFile(new ProjectFile("/test/Pie.java", "package test; public class Pie { int b; }"));
+        final ClarpseProject project = new ClarpseProject(rawData, Lang.JAVA);
+        final int initialSize = project.result().model().symbols().size();
+        OOPSourceCodeModel model = null;
+        for (int i = 1; i <= 20; i++) {
+            model = project.update(Collections.singletonList(new ProjectFile(
+                "/test/Cake.java", "package test; public class Cake { int a" + i + "; }")),
+                                   Collections.emptyList()).model();
+        }
+        assertTrue(model.containsComponent("test.Cake.a20"));
+        assertTrue(model.symbols().size() < 2 * initialSize);
+    }
+}
@@ -28,6 +28,26 @@ public class ChildComponentsTest extends GoTestBase {
     }
 
 
+    @Test
+    public void testGoStructMethodsDeclaredInOtherFilesAreChildrenOfStructs() throws Exception {
+        projectFiles.insertFile(new ProjectFile("/person_methods.go",
+            "package main\n func (p person) lol(x int) {}"));
+        projectFiles.insertFile(new ProjectFile("/dog_methods.go",
+            "package main\n func (d dog) lol(x int) {}"));
+        projectFiles.insertFile(new ProjectFile("/types.go",
+            "package main\ntype person struct {} \n type dog struct {}"));
+        final ClarpseProject parseService = new ClarpseProject(projectFiles, Lang.GOLANG);
+        final OOPSourceCodeModel generatedSourceModel = parseService.result().model();
+        assertTrue(generatedSourceModel.getComponent("main.person").get().children().contains(
+            "main.person.lol(int)"));
+        assertTrue(generatedSourceModel.getComponent("main.dog").get().children().contains(
+            "main.dog.lol(int)"));
+        assertEquals("main.person.lol(int).x", generatedSourceModel.getComponent(
+            "main.person.lol(int)").get().children().get(0));
+        assertEquals("main.dog.lol(int).x", generatedSourceModel.getComponent(
+            "main.dog.lol(int)").get().children().get(0));
+    }
+
     @Test
     public void noGoFilesParsedTest() throws Exception {
         projectFiles = new ProjectFiles();
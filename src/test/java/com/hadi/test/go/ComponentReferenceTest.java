@@ -4,11 +4,14 @@ import com.hadi.clarpse.compiler.ClarpseProject;
 import com.hadi.clarpse.compiler.Lang;
 import com.hadi.clarpse.compiler.ProjectFile;
 import com.hadi.clarpse.compiler.ProjectFiles;
+import com.hadi.clarpse.reference.ComponentReference;
 import com.hadi.clarpse.sourcemodel.OOPSourceCodeModel;
 import com.hadi.clarpse.sourcemodel.OOPSourceModelConstants;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -149,6 +152,29 @@ public class ComponentReferenceTest extends GoTestBase {
                 .equals("lol.github.aSecondInterface")));
     }
 
+    @Test
+    public void testParseGoStructsImplementOnlyFullyMatchedInterfaces() throws Exception {
+        final String codeA = "package main\n type file struct {}\n func (f file) Read(n int) string {}\n"
+            + "func (f *file) Close() int {}\n type pipe struct {}\n func (p pipe) Read(n int) string {}\n"
+            + "func (p pipe) Write(s string) int {}\n type lid struct {}\n func (l lid) Close() string {}";
+        final String codeB = "package io\n type Reader interface { Read(n int) string }\n"
+            + "type Writer interface { Write(s string) int }\n type Closer interface { Close() int }\n"
+            + "type ReadCloser interface { Read(n int) string\n Close() int }\n"
+            + "type ReadWriteCloser interface { Read(n int) string\n Write(s string) int\n Close() int }";
+        projectFiles.insertFile(new ProjectFile("/main/file.go", codeA));
+        projectFiles.insertFile(new ProjectFile("/io/io.go", codeB));
+        final OOPSourceCodeModel generatedSourceModel = new ClarpseProject(projectFiles, Lang.GOLANG).result().model();
+        assertEquals(List.of("io.Closer", "io.ReadCloser", "io.Reader"),
+                     implementedInterfaces(generatedSourceModel, "main.file"));
+        assertEquals(List.of("io.Reader", "io.Writer"), implementedInterfaces(generatedSourceModel, "main.pipe"));
+        assertEquals(List.of(), implementedInterfaces(generatedSourceModel, "main.lid"));
+    }
+
+    private static List<String> implementedInterfaces(final OOPSourceCodeModel model, final String struct) {
+        return model.getComponent(struct).get().references(OOPSourceModelConstants.TypeReferences.IMPLEMENTATION)
+                    .stream().map(ComponentReference::invokedComponent).collect(Collectors.toList());
+    }
+
     @Test
     public void testParseGoStructDoesNotImplementSimilarInterfaceByName() throws Exception {
         final String codeA = "package main\n type person struct {}\n func (p person) someMethods() {}\n"
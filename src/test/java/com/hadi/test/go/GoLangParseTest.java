@@ -1,12 +1,15 @@
 package com.hadi.test.go;
 
 import com.hadi.clarpse.compiler.ClarpseProject;
+import com.hadi.clarpse.compiler.CompileResult;
 import com.hadi.clarpse.compiler.ProjectFile;
 import com.hadi.clarpse.compiler.Lang;
 import com.hadi.clarpse.compiler.ProjectFiles;
 import com.hadi.clarpse.sourcemodel.OOPSourceCodeModel;
 import org.junit.Test;
 
+import java.util.Optional;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -22,6 +25,33 @@ public class GoLangParseTest extends GoTestBase {
         assertEquals(0, generatedSourceModel.getComponent("main.Command.LocalFlags() : (*flag.FlagSet)").get().children().size());
     }
 
+    /**
+     * The bare condition of the if statement is ambiguous to the SLL prediction the parser
+     * tries first, so the file is only parsed once the parser fell back to LL prediction.
+     */
+    @Test
+    public void testFileRequiringLlPredictionIsParsed() throws Exception {
+        final String code = "package main\n type Cake struct {\n slices int\n }\n"
+            + "func (c Cake) Slice(fresh bool) int {\n if fresh {\n c.eat()\n }\n return 0\n}\n"
+            + "func (c Cake) eat() {}";
+        projectFiles.insertFile(new ProjectFile("/cake.go", code));
+        final CompileResult result = new ClarpseProject(projectFiles, Lang.GOLANG).result();
+        assertTrue(result.failures().isEmpty());
+        assertTrue(result.model().containsComponent("main.Cake.slices"));
+        assertTrue(result.model().containsComponent("main.Cake.Slice(bool) : (int)"));
+        assertTrue(result.model().containsComponent("main.Cake.eat()"));
+    }
+
+    @Test
+    public void testFileWithSyntaxErrorsIsFailure() throws Exception {
+        projectFiles.insertFile(new ProjectFile("/cake.go", "package main\n type Cake struct {}"));
+        projectFiles.insertFile(new ProjectFile("/pie.go", "package main\n type Pie struct {\n func (p Pie) {"));
+        final CompileResult result = new ClarpseProject(projectFiles, Lang.GOLANG).result();
+        assertEquals(1, result.failures().size());
+        assertEquals(Optional.of(CompileResult.SYNTAX_ERRORS), result.failureReason("/pie.go"));
+        assertTrue(result.model().containsComponent("main.Cake"));
+    }
+
     @Test
     public void testStructWithinMethodIgnored() throws Exception {
         final String code = "package main\n import\"fmt\"\n func SomeFunc(b []byte) error {\n" +
@@ -1,12 +1,19 @@
 package com.hadi.test.go;
 
+import com.hadi.clarpse.compiler.ClarpseProject;
 import com.hadi.clarpse.compiler.Lang;
+import com.hadi.clarpse.compiler.ProjectFiles;
+import com.hadi.clarpse.sourcemodel.Component;
 import com.hadi.clarpse.sourcemodel.OOPSourceCodeModel;
 import com.hadi.clarpse.sourcemodel.OOPSourceModelConstants.TypeReferences;
 import com.hadi.test.ClarpseTestUtil;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -20,6 +27,20 @@ public class MultiModuleParsingTest {
                                                              Lang.GOLANG);
     }
 
+    @Test
+    public void streamedModulesMatchReadModules() throws Exception {
+        try (ProjectFiles projectFiles = new ProjectFiles(Objects.requireNonNull(
+            MultiModuleParsingTest.class.getResource("/multi-go-module-proj.zip")).getFile(), true)) {
+            final OOPSourceCodeModel streamedModel = new ClarpseProject(projectFiles, Lang.GOLANG).result().model();
+            assertEquals(componentNames(multiGoModuleModel), componentNames(streamedModel));
+            assertTrue(streamedModel.containsComponent("service.config.ConfigTestStruct"));
+        }
+    }
+
+    private static Set<String> componentNames(final OOPSourceCodeModel model) {
+        return model.components().map(Component::uniqueName).collect(Collectors.toSet());
+    }
+
     @Test
     public void spotCheckMultiGoModuleConfigTestStruct() {
         assertTrue(multiGoModuleModel.containsComponent("service.config.ConfigTestStruct"));
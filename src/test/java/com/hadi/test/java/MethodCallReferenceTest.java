@@ -9,6 +9,7 @@ import com.hadi.clarpse.sourcemodel.OOPSourceCodeModel;
 import com.hadi.clarpse.sourcemodel.OOPSourceModelConstants.TypeReferences;
 import org.junit.Test;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class MethodCallReferenceTest {
@@ -22,4 +23,45 @@ public class MethodCallReferenceTest {
         assertTrue(generatedSourceModel.getComponent("Test.m()").get()
                 .references(TypeReferences.SIMPLE).contains(new SimpleTypeReference("java.util.List")));
     }
+
+    @Test
+    public void testMethodCallTypeReferenceFromTypeInAnotherFile() throws Exception {
+        final ProjectFiles rawData = new ProjectFiles();
+        rawData.insertFile(new ProjectFile("/com/pie/Pie.java",
+            "package com.pie; import java.util.List; public class Pie { public List<String> slices(){ return null; } }"));
+        rawData.insertFile(new ProjectFile("/com/cake/Cake.java",
+            "package com.cake; import com.pie.Pie; class Cake { void eat(Pie pie){ pie.slices().get(0); } }"));
+        final OOPSourceCodeModel generatedSourceModel = new ClarpseProject(rawData, Lang.JAVA).result().model();
+        assertTrue(generatedSourceModel.getComponent("com.cake.Cake.eat(Pie)").get()
+                .references(TypeReferences.SIMPLE).contains(new SimpleTypeReference("java.util.List")));
+        assertFalse(rawData.isTempProjectDir());
+    }
+
+    @Test
+    public void testMethodCallTypeReferenceFromTypeInSamePackage() throws Exception {
+        final ProjectFiles rawData = new ProjectFiles();
+        rawData.insertFile(new ProjectFile("/com/pie/Pie.java",
+            "package com.pie; public class Pie { public static Crust crust(){ return null; } }"));
+        rawData.insertFile(new ProjectFile("/com/pie/Crust.java",
+            "package com.pie; public class Crust { }"));
+        rawData.insertFile(new ProjectFile("/com/pie/Cake.java",
+            "package com.pie; class Cake { void eat(){ Pie.crust(); } }"));
+        final OOPSourceCodeModel generatedSourceModel = new ClarpseProject(rawData, Lang.JAVA).result().model();
+        assertTrue(generatedSourceModel.getComponent("com.pie.Cake.eat()").get()
+                .references(TypeReferences.SIMPLE).contains(new SimpleTypeReference("com.pie.Pie")));
+    }
+
+    @Test
+    public void testStaticMethodCallOnSubclassReferencesDeclaringType() throws Exception {
+        final ProjectFiles rawData = new ProjectFiles();
+        rawData.insertFile(new ProjectFile("/com/pie/Dessert.java",
+            "package com.pie; public class Dessert { public static void serve(){ } }"));
+        rawData.insertFile(new ProjectFile("/com/pie/Pie.java",
+            "package com.pie; public class Pie extends Dessert { }"));
+        rawData.insertFile(new ProjectFile("/com/pie/Cake.java",
+            "package com.pie; class Cake { void eat(){ Pie.serve(); } }"));
+        final OOPSourceCodeModel generatedSourceModel = new ClarpseProject(rawData, Lang.JAVA).result().model();
+        assertTrue(generatedSourceModel.getComponent("com.pie.Cake.eat()").get()
+                .references(TypeReferences.SIMPLE).contains(new SimpleTypeReference("com.pie.Dessert")));
+    }
 }
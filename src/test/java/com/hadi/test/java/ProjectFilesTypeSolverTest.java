@@ -0,0 +1,41 @@
+package com.hadi.test.java;
+
+import com.hadi.clarpse.compiler.ProjectFile;
+import com.hadi.clarpse.compiler.ProjectFilesTypeSolver;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ProjectFilesTypeSolverTest {
+
+    private static ProjectFilesTypeSolver typeSolver() {
+        return new ProjectFilesTypeSolver(Arrays.asList(
+            new ProjectFile("/com/pie/Pie.java", "package com.pie; public class Pie { class Slice {} }"),
+            new ProjectFile("/com/pie/Crusts.java", "package com.pie; class Crust {}")));
+    }
+
+    @Test
+    public void testSolvesTypeFromFileNamedAfterType() {
+        assertEquals("com.pie.Pie",
+                     typeSolver().tryToSolveType("com.pie.Pie").getCorrespondingDeclaration().getQualifiedName());
+    }
+
+    @Test
+    public void testSolvesNestedType() {
+        assertTrue(typeSolver().tryToSolveType("com.pie.Pie.Slice").isSolved());
+    }
+
+    @Test
+    public void testSolvesTypeFromOtherFileInSameDir() {
+        assertTrue(typeSolver().tryToSolveType("com.pie.Crust").isSolved());
+    }
+
+    @Test
+    public void testDoesNotSolveUnknownType() {
+        assertFalse(typeSolver().tryToSolveType("com.pie.Cake").isSolved());
+    }
+}